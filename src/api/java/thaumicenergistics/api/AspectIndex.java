@@ -0,0 +1,142 @@
+package thaumicenergistics.api;
+
+import thaumcraft.api.aspects.Aspect;
+
+import java.util.*;
+
+/**
+ * Assigns every registered Thaumcraft aspect a compact integer ID
+ * <p>
+ * IDs are handed out in tag order when the index is built, so both sides of a connection running the same set of
+ * aspects agree on them. Aspects registered after the index was built get appended in first-use order, which can differ
+ * between server and client, so only the IDs accepted by {@link #isShared(int)} may be sent over the network.
+ */
+public final class AspectIndex {
+
+    private static volatile Snapshot snapshot = new Snapshot(new Aspect[0]);
+    private static boolean built = false;
+    private static int shared = 0;
+
+    private AspectIndex() {
+    }
+
+    /**
+     * Builds the index from every registered aspect, should be called once Thaumcraft and addons registered theirs
+     */
+    public static synchronized void build() {
+        List<Aspect> missing = new ArrayList<>();
+        for (Aspect aspect : Aspect.aspects.values())
+            if (aspect != null && !AspectIndex.snapshot.ids.containsKey(aspect))
+                missing.add(aspect);
+        if (!AspectIndex.built) // Sort the initial set so the IDs don't depend on registration order
+            missing.sort(Comparator.comparing(Aspect::getTag));
+        AspectIndex.append(missing);
+        if (!AspectIndex.built)
+            AspectIndex.shared = AspectIndex.snapshot.aspects.length;
+        AspectIndex.built = true;
+    }
+
+    /**
+     * Get the ID of an aspect
+     *
+     * @param aspect Aspect
+     * @return ID of the aspect or -1 if the aspect is null
+     */
+    public static int getId(Aspect aspect) {
+        if (aspect == null)
+            return -1;
+        Integer id = AspectIndex.snapshot.ids.get(aspect);
+        return id != null ? id : AspectIndex.register(aspect);
+    }
+
+    /**
+     * Get the ID of an aspect by its tag
+     *
+     * @param tag Aspect tag, case insensitive
+     * @return ID of the aspect or -1 if no aspect has that tag
+     */
+    public static int getId(String tag) {
+        if (tag == null)
+            return -1;
+        Integer id = AspectIndex.snapshot.tags.get(tag.toLowerCase(Locale.ROOT));
+        if (id != null)
+            return id;
+        return AspectIndex.getId(Aspect.getAspect(tag));
+    }
+
+    /**
+     * Get the aspect with the ID
+     *
+     * @param id Aspect ID
+     * @return Aspect or null if the ID is unknown
+     */
+    public static Aspect getAspect(int id) {
+        Aspect[] aspects = AspectIndex.snapshot.aspects;
+        return id >= 0 && id < aspects.length ? aspects[id] : null;
+    }
+
+    /**
+     * Get the aspect with the tag
+     *
+     * @param tag Aspect tag, case insensitive
+     * @return Aspect or null if no aspect has that tag
+     */
+    public static Aspect getAspect(String tag) {
+        return AspectIndex.getAspect(AspectIndex.getId(tag));
+    }
+
+    /**
+     * Whether the ID came from the sorted initial build and therefore means the same aspect on both sides
+     *
+     * @param id Aspect ID
+     * @return true if the ID can be sent over the network
+     */
+    public static boolean isShared(int id) {
+        return id >= 0 && id < AspectIndex.shared;
+    }
+
+    /**
+     * @return Number of IDs handed out, all IDs are below this
+     */
+    public static int size() {
+        return AspectIndex.snapshot.aspects.length;
+    }
+
+    private static synchronized int register(Aspect aspect) {
+        if (!AspectIndex.built)
+            AspectIndex.build();
+        Integer id = AspectIndex.snapshot.ids.get(aspect);
+        if (id != null)
+            return id;
+        AspectIndex.append(Collections.singletonList(aspect));
+        return AspectIndex.snapshot.ids.get(aspect);
+    }
+
+    private static void append(List<Aspect> aspects) {
+        if (aspects.isEmpty())
+            return;
+        Aspect[] current = AspectIndex.snapshot.aspects;
+        Aspect[] next = Arrays.copyOf(current, current.length + aspects.size());
+        for (int i = 0; i < aspects.size(); i++)
+            next[current.length + i] = aspects.get(i);
+        AspectIndex.snapshot = new Snapshot(next);
+    }
+
+    /**
+     * Immutable view of the index, replaced as a whole when aspects get added so readers never lock
+     */
+    private static class Snapshot {
+
+        private final Aspect[] aspects;
+        private final Map<Aspect, Integer> ids = new IdentityHashMap<>();
+        private final Map<String, Integer> tags = new HashMap<>();
+
+        private Snapshot(Aspect[] aspects) {
+            this.aspects = aspects;
+            for (int i = 0; i < aspects.length; i++) {
+                this.ids.put(aspects[i], i);
+                this.tags.put(aspects[i].getTag().toLowerCase(Locale.ROOT), i);
+            }
+        }
+    }
+}
@@ -11,13 +11,23 @@ import thaumcraft.api.aspects.Aspect;
 public class EssentiaStack {
 
     private String aspect;
-    private int amount;
+    private long amount;
+    private Aspect resolved;
 
     public EssentiaStack(Aspect aspect, int amount) {
+        this(aspect, (long) amount);
+    }
+
+    public EssentiaStack(Aspect aspect, long amount) {
         this(aspect != null ? aspect.getTag() : "", amount);
+        this.resolved = aspect;
     }
 
     public EssentiaStack(String aspect, int amount) {
+        this(aspect, (long) amount);
+    }
+
+    public EssentiaStack(String aspect, long amount) {
         if (aspect == null || aspect.isEmpty())
             throw new IllegalArgumentException("Aspect cannot be null");
         this.aspect = aspect;
@@ -26,7 +36,8 @@ public class EssentiaStack {
 
     private EssentiaStack(EssentiaStack old) {
         this.aspect = old.getAspectTag();
-        this.amount = old.getAmount();
+        this.amount = old.getAmountLong();
+        this.resolved = old.resolved;
     }
 
     private EssentiaStack() {
@@ -38,26 +49,42 @@ public class EssentiaStack {
     }
 
     public Aspect getAspect() {
-        return Aspect.getAspect(this.getAspectTag());
+        if (this.resolved == null)
+            this.resolved = AspectIndex.getAspect(this.getAspectTag());
+        return this.resolved;
     }
 
     public void setAmount(int amount) {
+        this.setAmount((long) amount);
+    }
+
+    public void setAmount(long amount) {
         this.amount = amount;
     }
 
+    /**
+     * @return The amount capped to the int range
+     * @deprecated Amounts can exceed an int, use {@link #getAmountLong()}
+     */
+    @Deprecated
     public int getAmount() {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, this.amount));
+    }
+
+    public long getAmountLong() {
         return this.amount;
     }
 
     public NBTTagCompound write(NBTTagCompound tag) {
         tag.setString("Aspect", this.getAspectTag());
-        tag.setInteger("Amount", this.getAmount());
+        tag.setLong("Amount", this.getAmountLong());
         return tag;
     }
 
     public void read(NBTTagCompound tag) {
         this.aspect = tag.getString("Aspect");
-        this.amount = tag.getInteger("Amount");
+        this.amount = tag.getLong("Amount");
+        this.resolved = null;
     }
 
     public EssentiaStack copy() {
@@ -68,7 +95,7 @@ public class EssentiaStack {
         if (tag != null && !tag.isEmpty()) {
             EssentiaStack stack = new EssentiaStack();
             stack.read(tag);
-            return stack.getAspect() != null && stack.getAmount() > 0 ? stack : null;
+            return stack.getAspect() != null && stack.getAmountLong() > 0 ? stack : null;
         }
         return null;
     }
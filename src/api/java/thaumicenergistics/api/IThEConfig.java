@@ -14,6 +14,8 @@ public interface IThEConfig {
 
     Map<String, Integer> essentiaContainerCapacity();
 
+    int essentiaStorageBusClusterSize();
+
     int tickTimeEssentiaImportBusMin();
 
     int tickTimeEssentiaImportBusMax();
@@ -30,6 +32,12 @@ public interface IThEConfig {
 
     int tickTimeArcaneAssemblerMax();
 
+    int tickTimeEssentiaCellSave();
+
+    int terminalUpdateFlushCap();
+
+    int terminalInventoryBytesPerTick();
+
     TerminalStyle terminalStyle();
 
     SearchBoxMode searchBoxMode();
@@ -43,4 +51,8 @@ public interface IThEConfig {
     PrefixSetting aspectSearchSetting();
 
     double arcaneAssemblerParticleMultiplier();
+
+    boolean asyncTerminalSearch();
+
+    int terminalSearchCacheSize();
 }
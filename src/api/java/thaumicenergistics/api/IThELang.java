@@ -70,6 +70,8 @@ public interface IThELang {
 
     IThELangKey arcaneAssemblerNoVis();
 
+    IThELangKey essentiaStorageBusCluster();
+
     IThELangKey guiEssentiaImportBus();
 
     IThELangKey guiEssentiaExportBus();
@@ -5,27 +5,27 @@ import appeng.api.config.SortDir;
 import appeng.api.config.SortOrder;
 import appeng.api.config.ViewItems;
 import appeng.api.storage.IStorageChannel;
-import appeng.api.storage.data.IAEFluidStack;
-import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
-import appeng.util.Platform;
 import invtweaks.api.InvTweaksAPI;
-import thaumcraft.api.aspects.Aspect;
-import thaumcraft.api.aspects.AspectList;
 import thaumicenergistics.api.ThEApi;
 import thaumicenergistics.api.config.PrefixSetting;
 import thaumicenergistics.integration.invtweaks.ThEInvTweaks;
 import thaumicenergistics.integration.jei.ThEJEI;
 import thaumicenergistics.util.AEUtil;
-import thaumicenergistics.util.TCUtil;
-
-import java.util.ArrayList;
-import java.util.List;
+import thaumicenergistics.util.ThELog;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 /**
  * Based on ItemRepo and FluidRepo
@@ -35,11 +35,42 @@ import java.util.stream.StreamSupport;
  */
 public class MERepo<T extends IAEStack<T>> {
 
+    /**
+     * How long the search text has to stay the same before it gets passed on to JEI, in milliseconds
+     */
+    private static final long JEI_SYNC_DELAY = 250;
+    private static final ExecutorService SEARCH_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ThE Terminal Search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final IItemList<T> list;
     /**
      * Contains all stacks currently in the view
      */
-    private final ArrayList<T> view = new ArrayList<>();
+    private ArrayList<T> view = new ArrayList<>();
+    /**
+     * Maps stacks to their entry in the view, used to find the entry again when the stack changes
+     */
+    private final Map<T, T> viewEntries = new HashMap<>();
+    /**
+     * Stacks that changed since the view was last updated
+     */
+    private final Set<T> changed = new LinkedHashSet<>();
+    /**
+     * Stacks that changed while a background rebuild was running, they get applied again to its result
+     */
+    private final Set<T> missedChanges = new LinkedHashSet<>();
+    private final AtomicInteger generation = new AtomicInteger();
+    private final AtomicReference<ViewResult<T>> result = new AtomicReference<>();
+    private Predicate<T> filter;
+    private Comparator<T> comparator;
+    private ViewItems filterViewMode;
+    private boolean rebuild = true;
+    private boolean building = false;
+    private String jeiSearchText;
+    private long jeiSearchTextTime;
     private String searchString = "";
     private ViewItems viewMode;
     private SortDir sortDir;
@@ -56,9 +87,65 @@ public class MERepo<T extends IAEStack<T>> {
         this.searchBoxMode = ThEApi.instance().config().searchBoxMode();
     }
 
+    /**
+     * Brings the view up to date
+     * <p>
+     * Only the stacks changed since the last call get moved around in the view, the view is rebuilt from scratch only
+     * when the search, sort or view mode changed. With async search enabled the rebuild runs on a background thread
+     * and the old view stays until {@link #tick()} publishes the result. Sorting by InvTweaks always rebuilds on the
+     * client thread.
+     */
     public void updateView() {
-        this.view.clear();
-        this.view.ensureCapacity(this.list.size());
+        if (this.rebuild)
+            this.rebuildView();
+        this.applyChanges();
+
+        // TODO: Check if this is even needed anymore
+        if (this.getScrollBar() != null) {
+            if (this.view.size() <= this.getRowSize() * 6) { // We don't need to have scrolling
+                this.getScrollBar().setRows(6);
+                this.getScrollBar().click(this.scrollBar.getY());
+            } else {
+                this.getScrollBar().setRows((int) Math.ceil(this.view.size() * this.getRowSize()));
+            }
+        }
+    }
+
+    /**
+     * Should be called every client tick, passes the search on to JEI and publishes background rebuilds
+     *
+     * @return True if the view changed
+     */
+    public boolean tick() {
+        if (this.jeiSearchText != null && System.currentTimeMillis() - this.jeiSearchTextTime >= JEI_SYNC_DELAY)
+            this.flushJEISearchText();
+
+        ViewResult<T> result = this.result.getAndSet(null);
+        if (result == null || result.generation != this.generation.get())
+            return false;
+        this.publish(result);
+        this.updateView();
+        return true;
+    }
+
+    /**
+     * Cancels any running rebuild and passes a pending search on to JEI, call when the gui closes
+     */
+    public void close() {
+        this.generation.incrementAndGet();
+        this.building = false;
+        this.flushJEISearchText();
+    }
+
+    private void flushJEISearchText() {
+        if (this.jeiSearchText != null)
+            ThEJEI.setSearchText(this.jeiSearchText);
+        this.jeiSearchText = null;
+    }
+
+    private void rebuildView() {
+        this.rebuild = false;
+        SearchIndex.INSTANCE.reserve(this.list.size());
 
         String search = this.searchString;
         boolean sbm = false;
@@ -68,8 +155,10 @@ public class MERepo<T extends IAEStack<T>> {
         PrefixSetting modSearchSetting = ThEApi.instance().config().modSearchSetting();
         PrefixSetting aspectSearchSetting = ThEApi.instance().config().aspectSearchSetting();
 
-        if (Stream.of(SearchBoxMode.JEI_AUTOSEARCH, SearchBoxMode.JEI_MANUAL_SEARCH, SearchBoxMode.JEI_AUTOSEARCH_KEEP, SearchBoxMode.JEI_MANUAL_SEARCH_KEEP).anyMatch(m -> m == this.searchBoxMode))
-            ThEJEI.setSearchText(search);
+        if (Stream.of(SearchBoxMode.JEI_AUTOSEARCH, SearchBoxMode.JEI_MANUAL_SEARCH, SearchBoxMode.JEI_AUTOSEARCH_KEEP, SearchBoxMode.JEI_MANUAL_SEARCH_KEEP).anyMatch(m -> m == this.searchBoxMode)) {
+            this.jeiSearchText = search;
+            this.jeiSearchTextTime = System.currentTimeMillis();
+        }
 
         // DISABLED = Don't search and ignore what it starts with
         // REQUIRE_PREFIX = If search starts with prefix, drop prefix and search ONLY by that search
@@ -111,6 +200,7 @@ public class MERepo<T extends IAEStack<T>> {
             try {
                 pattern = Pattern.compile(Pattern.quote(search), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
             } catch (PatternSyntaxException ignored2) {
+                this.publish(new ViewResult<>(this.generation.incrementAndGet(), new ArrayList<>(), new HashMap<>(), null, null, null));
                 return;
             }
         }
@@ -119,59 +209,169 @@ public class MERepo<T extends IAEStack<T>> {
         final Pattern p = pattern;
         final boolean searchByMod = sbm;
         final boolean searchByAspect = sba;
-
-        Stream<T> stream = StreamSupport.stream(this.list.spliterator(), false);
-
-        stream = stream.filter(t ->
-                !(this.getViewMode() == ViewItems.CRAFTABLE && !t.isCraftable()) || !(this.getViewMode() == ViewItems.STORED && t.getStackSize() == 0)
-        );
-
+        // InvTweaks compares the item stacks themselves, that has to stay on the client thread
+        boolean async = ThEApi.instance().config().asyncTerminalSearch() && !(this.sortOrder == SortOrder.INVTWEAKS && ThEInvTweaks.getApi() != null);
+
+        // Search a snapshot, the list keeps changing while the search runs. Everything the search and sort read gets
+        // looked up here since the game only expects that on the client thread, the search thread only reads strings
+        List<T> snapshot = new ArrayList<>(async ? this.list.size() : 0);
+        Map<T, SearchIndex.Entry> prepared = new HashMap<>(async ? this.list.size() : 0);
+        if (async) {
+            for (T t : this.list) {
+                T copy = t.copy();
+                SearchIndex.Entry entry = SearchIndex.INSTANCE.get(copy);
+                entry.prepare();
+                snapshot.add(copy);
+                prepared.put(copy, entry);
+            }
+        }
+        // The filter and comparator stay in use for changes applied on the client thread, stacks new since the
+        // snapshot get looked up there
+        Function<T, SearchIndex.Entry> index = t -> {
+            SearchIndex.Entry entry = prepared.get(t);
+            return entry != null ? entry : SearchIndex.INSTANCE.get(t);
+        };
+
+        Predicate<T> filter;
         if (searchSpecific) {
             if (searchByAspect) {
-                stream = stream.filter(t -> this.searchAspects(t, p));
+                filter = t -> this.searchAspects(index.apply(t), p);
             } else if (searchByMod) {
-                stream = stream.filter(t -> this.searchMod(t, p));
+                filter = t -> this.searchMod(index.apply(t), p);
+            } else {
+                filter = t -> true;
             }
         } else {
-            stream = stream.filter(t -> {
-                if (searchByAspect && this.searchAspects(t, p))
+            filter = t -> {
+                SearchIndex.Entry entry = index.apply(t);
+                if (searchByAspect && this.searchAspects(entry, p))
                     return true;
-                if (searchByMod && this.searchMod(t, p))
+                if (searchByMod && this.searchMod(entry, p))
                     return true;
-                return this.searchName(t, p) || this.searchTooltip(t, p);
+                return this.searchName(entry, p) || this.searchTooltip(entry, p);
+            };
+        }
+        Comparator<T> comparator = this.createComparator(index);
+        ViewItems viewMode = this.viewMode;
+        int generation = this.generation.incrementAndGet();
+        this.changed.clear();
+        this.missedChanges.clear();
+
+        if (async) {
+            this.building = true;
+            SEARCH_EXECUTOR.execute(() -> {
+                try {
+                    ViewResult<T> result = MERepo.buildView(snapshot, filter, comparator, viewMode, generation, () -> this.generation.get() != generation);
+                    if (result != null)
+                        this.result.set(result);
+                } catch (RuntimeException e) {
+                    ThELog.error("Terminal search failed", e);
+                }
             });
+        } else {
+            this.publish(MERepo.buildView(this.list, filter, comparator, viewMode, generation, () -> false));
         }
+    }
 
-        stream.forEach(t -> {
-            T stack = t.copy();
-            if (this.getViewMode().equals(ViewItems.CRAFTABLE)) {
-                if (!stack.isCraftable())
-                    return;
-                stack.setStackSize(0);
-            } else if (this.getViewMode().equals(ViewItems.STORED) && stack.getStackSize() < 1) {
-                return;
+    /**
+     * Filters and sorts the stacks into a new view
+     *
+     * @return The view or null if it was cancelled
+     */
+    private static <T extends IAEStack<T>> ViewResult<T> buildView(Iterable<T> stacks, Predicate<T> filter, Comparator<T> comparator, ViewItems viewMode, int generation, BooleanSupplier cancelled) {
+        ArrayList<T> view = new ArrayList<>();
+        Map<T, T> entries = new HashMap<>();
+        int checked = 0;
+        for (T t : stacks) {
+            if ((++checked & 0xFF) == 0 && cancelled.getAsBoolean())
+                return null;
+            T stack = MERepo.createViewStack(t, filter, viewMode);
+            if (stack != null) {
+                view.add(stack);
+                entries.put(stack, stack);
             }
-            this.view.add(stack);
-        });
-
-        if (sortOrder == SortOrder.MOD)
-            this.sortByMod();
-        else if (sortOrder == SortOrder.NAME)
-            this.sortByName();
-        else if (sortOrder == SortOrder.AMOUNT)
-            this.sortByCount();
-        else if (sortOrder == SortOrder.INVTWEAKS)
-            this.sortByInvTweaks();
+        }
+        if (cancelled.getAsBoolean())
+            return null;
+        view.sort(comparator);
+        if (cancelled.getAsBoolean())
+            return null;
+        return new ViewResult<>(generation, view, entries, filter, comparator, viewMode);
+    }
 
-        // TODO: Check if this is even needed anymore
-        if (this.getScrollBar() != null) {
-            if (this.view.size() <= this.getRowSize() * 6) { // We don't need to have scrolling
-                this.getScrollBar().setRows(6);
-                this.getScrollBar().click(this.scrollBar.getY());
-            } else {
-                this.getScrollBar().setRows((int) Math.ceil(this.view.size() * this.getRowSize()));
+    private void publish(ViewResult<T> result) {
+        this.view = result.view;
+        this.viewEntries.clear();
+        this.viewEntries.putAll(result.entries);
+        this.filter = result.filter;
+        this.comparator = result.comparator;
+        this.filterViewMode = result.viewMode;
+        this.building = false;
+        this.changed.addAll(this.missedChanges);
+        this.missedChanges.clear();
+    }
+
+    private void applyChanges() {
+        if (this.building)
+            this.missedChanges.addAll(this.changed);
+        if (this.filter == null) {
+            this.changed.clear();
+            return;
+        }
+        for (T key : this.changed) {
+            T old = this.viewEntries.remove(key);
+            if (old != null)
+                this.removeFromView(old);
+
+            T current = this.list.findPrecise(key);
+            T stack = current != null && current.isMeaningful() ? MERepo.createViewStack(current, this.filter, this.filterViewMode) : null;
+            if (stack == null)
+                continue;
+            int index = Collections.binarySearch(this.view, stack, this.comparator);
+            this.view.add(index < 0 ? -index - 1 : index, stack);
+            this.viewEntries.put(stack, stack);
+        }
+        this.changed.clear();
+    }
+
+    /**
+     * Removes the entry from the view, the entry still holds the values it was sorted by
+     */
+    private void removeFromView(T entry) {
+        int index = Collections.binarySearch(this.view, entry, this.comparator);
+        if (index >= 0) {
+            // Entries comparing equal (same name for example) can sit on either side
+            for (int i = index; i >= 0 && this.comparator.compare(this.view.get(i), entry) == 0; i--) {
+                if (this.view.get(i) == entry) {
+                    this.view.remove(i);
+                    return;
+                }
+            }
+            for (int i = index + 1; i < this.view.size() && this.comparator.compare(this.view.get(i), entry) == 0; i++) {
+                if (this.view.get(i) == entry) {
+                    this.view.remove(i);
+                    return;
+                }
             }
         }
+        this.view.remove(entry);
+    }
+
+    /**
+     * @return Copy of the stack as it should show up in the view, or null if it doesn't belong in the view
+     */
+    private static <T extends IAEStack<T>> T createViewStack(T t, Predicate<T> filter, ViewItems viewMode) {
+        if (!filter.test(t))
+            return null;
+        T stack = t.copy();
+        if (viewMode == ViewItems.CRAFTABLE) {
+            if (!stack.isCraftable())
+                return null;
+            stack.setStackSize(0);
+        } else if (viewMode == ViewItems.STORED && stack.getStackSize() < 1) {
+            return null;
+        }
+        return stack;
     }
 
     public void postUpdate(T stack) {
@@ -182,6 +382,8 @@ public class MERepo<T extends IAEStack<T>> {
         } else { // Doesn't exist in the list yet
             this.list.add(stack);
         }
+        if (!this.changed.contains(stack))
+            this.changed.add(stack.copy());
     }
 
     public T getReferenceStack(int i) {
@@ -198,6 +400,7 @@ public class MERepo<T extends IAEStack<T>> {
 
     public void clear() {
         this.list.resetStatus();
+        this.rebuild = true;
     }
 
     public void setScrollBar(GuiScrollBar scrollBar) {
@@ -217,6 +420,8 @@ public class MERepo<T extends IAEStack<T>> {
     }
 
     public void setSearchString(String searchString) {
+        if (!this.searchString.equals(searchString))
+            this.rebuild = true;
         this.searchString = searchString;
     }
 
@@ -225,6 +430,8 @@ public class MERepo<T extends IAEStack<T>> {
     }
 
     public void setViewMode(ViewItems view) {
+        if (this.viewMode != view)
+            this.rebuild = true;
         this.viewMode = view;
     }
 
@@ -237,6 +444,8 @@ public class MERepo<T extends IAEStack<T>> {
     }
 
     public void setSortDir(SortDir sortDir) {
+        if (this.sortDir != sortDir)
+            this.rebuild = true;
         this.sortDir = sortDir;
     }
 
@@ -245,6 +454,8 @@ public class MERepo<T extends IAEStack<T>> {
     }
 
     public void setSortOrder(SortOrder sortOrder) {
+        if (this.sortOrder != sortOrder)
+            this.rebuild = true;
         this.sortOrder = sortOrder;
     }
 
@@ -253,16 +464,17 @@ public class MERepo<T extends IAEStack<T>> {
     }
 
     public void setSearchBoxMode(SearchBoxMode searchBoxMode) {
+        if (this.searchBoxMode != searchBoxMode)
+            this.rebuild = true;
         this.searchBoxMode = searchBoxMode;
     }
 
-    private boolean searchName(T stack, Pattern p) {
-        return p.matcher(Platform.getItemDisplayName(stack)).find();
+    private boolean searchName(SearchIndex.Entry entry, Pattern p) {
+        return p.matcher(entry.getName()).find();
     }
 
-    private boolean searchTooltip(T stack, Pattern p) {
-        List<String> tooltip = Platform.getTooltip(stack);
-        for (String line : tooltip) {
+    private boolean searchTooltip(SearchIndex.Entry entry, Pattern p) {
+        for (String line : entry.getTooltip()) {
             if (p.matcher(line).find()) {
                 return true;
             }
@@ -270,49 +482,78 @@ public class MERepo<T extends IAEStack<T>> {
         return false;
     }
 
-    private boolean searchMod(T stack, Pattern p) {
-        if (stack instanceof IAEItemStack)
-            return p.matcher(Platform.getModId((IAEItemStack) stack)).find();
-        if (stack instanceof IAEFluidStack)
-            return p.matcher(Platform.getModId((IAEFluidStack) stack)).find();
-        return true;
+    private boolean searchMod(SearchIndex.Entry entry, Pattern p) {
+        String modId = entry.getModId();
+        return modId == null || p.matcher(modId).find();
     }
 
-    private boolean searchAspects(T stack, Pattern p) {
-        AspectList aspects = TCUtil.getItemAspects(stack.asItemStackRepresentation());
-        if (aspects == null || aspects.size() < 1)
-            return false;
-        final Pattern pf = p;
-        Stream<Aspect> stream = aspects.aspects.keySet().stream();
-        return stream.anyMatch(aspect -> pf.matcher(aspect.getName()).find());
+    private boolean searchAspects(SearchIndex.Entry entry, Pattern p) {
+        for (String aspect : entry.getAspects()) {
+            if (p.matcher(aspect).find()) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private int checkSortDir(int i) {
-        return this.getSortDir() == SortDir.ASCENDING ? i : -i;
+    private Comparator<T> createComparator(Function<T, SearchIndex.Entry> index) {
+        Comparator<T> comparator;
+        if (this.sortOrder == SortOrder.MOD)
+            comparator = this.sortByMod(index);
+        else if (this.sortOrder == SortOrder.AMOUNT)
+            comparator = this.sortByCount();
+        else if (this.sortOrder == SortOrder.INVTWEAKS)
+            comparator = this.sortByInvTweaks(index);
+        else
+            comparator = this.sortByName(index);
+        return this.getSortDir() == SortDir.ASCENDING ? comparator : comparator.reversed();
     }
 
-    private void sortByName() {
-        this.view.sort((o1, o2) -> this.checkSortDir(AEUtil.getDisplayName(o1).compareToIgnoreCase(AEUtil.getDisplayName(o2))));
+    private Comparator<T> sortByName(Function<T, SearchIndex.Entry> index) {
+        return (o1, o2) -> index.apply(o1).getSortName().compareToIgnoreCase(index.apply(o2).getSortName());
     }
 
-    private void sortByMod() {
-        this.view.sort((o1, o2) -> {
-            int i = AEUtil.getModID(o1).compareToIgnoreCase(AEUtil.getModID(o2));
+    private Comparator<T> sortByMod(Function<T, SearchIndex.Entry> index) {
+        return (o1, o2) -> {
+            SearchIndex.Entry e1 = index.apply(o1);
+            SearchIndex.Entry e2 = index.apply(o2);
+            int i = e1.getSortModId().compareToIgnoreCase(e2.getSortModId());
             if (i == 0)
-                i = AEUtil.getDisplayName(o1).compareToIgnoreCase(AEUtil.getDisplayName(o2));
-            return this.checkSortDir(i);
-        });
+                i = e1.getSortName().compareToIgnoreCase(e2.getSortName());
+            return i;
+        };
     }
 
-    private void sortByCount() {
-        this.view.sort((o1, o2) -> this.checkSortDir(Long.compare(AEUtil.getStackSize(o2), AEUtil.getStackSize(o1))));
+    private Comparator<T> sortByCount() {
+        return (o1, o2) -> Long.compare(AEUtil.getStackSize(o2), AEUtil.getStackSize(o1));
     }
 
-    private void sortByInvTweaks() {
+    private Comparator<T> sortByInvTweaks(Function<T, SearchIndex.Entry> index) {
         InvTweaksAPI api = ThEInvTweaks.getApi();
         if (api == null)
-            sortByName();
-        else
-            this.view.sort((o1, o2) -> this.checkSortDir(api.compareItems(o1.asItemStackRepresentation(), o2.asItemStackRepresentation())));
+            return this.sortByName(index);
+        return (o1, o2) -> api.compareItems(o1.asItemStackRepresentation(), o2.asItemStackRepresentation());
+    }
+
+    /**
+     * Filtered and sorted view together with what it was built with
+     */
+    private static class ViewResult<T extends IAEStack<T>> {
+
+        private final int generation;
+        private final ArrayList<T> view;
+        private final Map<T, T> entries;
+        private final Predicate<T> filter;
+        private final Comparator<T> comparator;
+        private final ViewItems viewMode;
+
+        private ViewResult(int generation, ArrayList<T> view, Map<T, T> entries, Predicate<T> filter, Comparator<T> comparator, ViewItems viewMode) {
+            this.generation = generation;
+            this.view = view;
+            this.entries = entries;
+            this.filter = filter;
+            this.comparator = comparator;
+            this.viewMode = viewMode;
+        }
     }
 }
@@ -0,0 +1,160 @@
+package thaumicenergistics.client.gui.helpers;
+
+import appeng.api.storage.data.IAEFluidStack;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IAEStack;
+import appeng.util.Platform;
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.client.resources.IResourceManagerReloadListener;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+import thaumcraft.api.aspects.Aspect;
+import thaumcraft.api.aspects.AspectList;
+import thaumicenergistics.api.ThEApi;
+import thaumicenergistics.util.AEUtil;
+import thaumicenergistics.util.TCUtil;
+
+import java.util.*;
+
+/**
+ * Caches the strings terminals search and sort by, keyed by stack definition so amounts don't matter
+ * <p>
+ * Every value is only looked up the first time it's needed and the least recently used stacks get dropped once the
+ * cache is full. The cache is at least as big as configured and grows to fit the largest terminal seen, so sorting a
+ * large network doesn't keep dropping and looking up the same stacks. Everything gets dropped on resource reload,
+ * that's also when the language changes.
+ */
+@SideOnly(Side.CLIENT)
+public class SearchIndex implements IResourceManagerReloadListener {
+
+    public static final SearchIndex INSTANCE = new SearchIndex();
+
+    private final Map<IAEStack<?>, Entry> entries = new LinkedHashMap<IAEStack<?>, Entry>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<IAEStack<?>, Entry> eldest) {
+            return this.size() > SearchIndex.this.getCapacity();
+        }
+    };
+    private int reserved;
+
+    private SearchIndex() {
+    }
+
+    public synchronized Entry get(IAEStack<?> stack) {
+        Entry entry = this.entries.get(stack);
+        if (entry == null) {
+            entry = new Entry(stack.copy());
+            this.entries.put(entry.stack, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Makes sure the cache fits at least this many stacks
+     */
+    public synchronized void reserve(int size) {
+        this.reserved = Math.max(this.reserved, size + size / 4);
+    }
+
+    private int getCapacity() {
+        return Math.max(ThEApi.instance().config().terminalSearchCacheSize(), this.reserved);
+    }
+
+    public synchronized void invalidate() {
+        this.entries.clear();
+    }
+
+    @Override
+    public void onResourceManagerReload(IResourceManager resourceManager) {
+        this.invalidate();
+    }
+
+    private static String lower(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+
+    public static class Entry {
+
+        private final IAEStack<?> stack;
+        private String name;
+        private String[] tooltip;
+        private String modId;
+        private String[] aspects;
+        private String sortName;
+        private String sortModId;
+
+        private Entry(IAEStack<?> stack) {
+            this.stack = stack;
+        }
+
+        /**
+         * Looks up every value now, so other threads can read them without calling into the game
+         */
+        public void prepare() {
+            this.getName();
+            this.getTooltip();
+            this.getModId();
+            this.getAspects();
+            this.getSortName();
+            this.getSortModId();
+        }
+
+        public synchronized String getName() {
+            if (this.name == null)
+                this.name = SearchIndex.lower(Platform.getItemDisplayName(this.stack));
+            return this.name;
+        }
+
+        public synchronized String[] getTooltip() {
+            if (this.tooltip == null)
+                this.tooltip = Platform.getTooltip(this.stack).stream().map(SearchIndex::lower).toArray(String[]::new);
+            return this.tooltip;
+        }
+
+        /**
+         * @return Mod ID or null if the stack type has no mod to search by
+         */
+        public synchronized String getModId() {
+            if (this.modId == null) {
+                if (this.stack instanceof IAEItemStack)
+                    this.modId = SearchIndex.lower(Platform.getModId((IAEItemStack) this.stack));
+                else if (this.stack instanceof IAEFluidStack)
+                    this.modId = SearchIndex.lower(Platform.getModId((IAEFluidStack) this.stack));
+            }
+            return this.modId;
+        }
+
+        public synchronized String[] getAspects() {
+            if (this.aspects == null) {
+                AspectList list = TCUtil.getItemAspects(this.stack.asItemStackRepresentation());
+                if (list == null || list.size() < 1) {
+                    this.aspects = new String[0];
+                } else {
+                    List<String> names = new ArrayList<>(list.size());
+                    for (Aspect aspect : list.aspects.keySet())
+                        names.add(SearchIndex.lower(aspect.getName()));
+                    this.aspects = names.toArray(new String[0]);
+                }
+            }
+            return this.aspects;
+        }
+
+        /**
+         * @return Display name as used for sorting, not lowercased
+         */
+        public synchronized String getSortName() {
+            if (this.sortName == null)
+                this.sortName = AEUtil.getDisplayName(this.stack);
+            return this.sortName;
+        }
+
+        /**
+         * @return Mod ID as used for sorting, not lowercased
+         */
+        public synchronized String getSortModId() {
+            if (this.sortModId == null)
+                this.sortModId = AEUtil.getModID(this.stack);
+            return this.sortModId;
+        }
+    }
+}
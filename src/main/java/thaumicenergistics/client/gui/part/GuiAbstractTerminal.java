@@ -27,6 +27,22 @@ public abstract class GuiAbstractTerminal<T extends IAEStack<T>, C extends IStor
         return this.repo;
     }
 
+    public abstract void updateScroll();
+
+    @Override
+    public void updateScreen() {
+        super.updateScreen();
+        if (this.repo != null && this.repo.tick())
+            this.updateScroll();
+    }
+
+    @Override
+    public void onGuiClosed() {
+        super.onGuiClosed();
+        if (this.repo != null)
+            this.repo.close();
+    }
+
     @Override
     public boolean isPowered() {
         return this.container.getPart().isPowered();
@@ -375,7 +375,9 @@ public class GuiArcaneTerminal extends GuiAbstractTerminal<IAEItemStack, IItemSt
         }
     }
 
-    public void onMEStorageUpdate(List<IAEItemStack> list) {
+    public void onMEStorageUpdate(List<IAEItemStack> list, boolean reset) {
+        if (reset)
+            this.repo.clear();
         for (IAEItemStack stack : list)
             this.repo.postUpdate(stack);
         this.repo.updateView();
@@ -4,7 +4,6 @@ import appeng.api.config.Settings;
 import appeng.api.config.SortDir;
 import appeng.api.config.SortOrder;
 import appeng.api.config.TerminalStyle;
-import appeng.api.storage.data.IItemList;
 import appeng.api.util.IConfigManager;
 import appeng.api.util.IConfigurableObject;
 import appeng.client.gui.widgets.GuiImgButton;
@@ -31,6 +30,7 @@ import thaumicenergistics.network.packets.PacketUIAction;
 import thaumicenergistics.util.ThEUtil;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * @author BrockWS
@@ -202,8 +202,9 @@ public class GuiEssentiaTerminal extends GuiAbstractTerminal<IAEEssentiaStack, I
         }
     }
 
-    public void onMEStorageUpdate(IItemList<IAEEssentiaStack> list) {
-        this.repo.clear();
+    public void onMEStorageUpdate(List<IAEEssentiaStack> list, boolean full) {
+        if (full)
+            this.repo.clear();
         for (IAEEssentiaStack stack : list)
             this.repo.postUpdate(stack);
         this.repo.updateView();
@@ -28,12 +28,20 @@ public class ThEConfig implements IThEConfig {
     @Comment("Specifies how much a item that holds essentia can hold\nFor filling with Essentia Terminal\nBest to set it to how much the item can actually store")
     public static Map<String, Integer> essentiaContainerCapacity = new HashMap<>();
 
+    @Name("Essentia Storage Bus Cluster Size")
+    @Comment("Max amount of connected jars a Essentia Storage Bus with a Fuzzy Card combines into one storage")
+    @Config.RangeInt(min = 1, max = 1024)
+    public static int essentiaStorageBusClusterSize = 64;
+
     @Name("Tick Rates")
     public static TickRates tickRates = new TickRates();
 
     @Name("Client Config")
     public static Client client = new Client();
 
+    @Name("Network")
+    public static Network network = new Network();
+
     public static class Client {
 
         @Name("Terminal Style")
@@ -57,11 +65,37 @@ public class ThEConfig implements IThEConfig {
         @Name("Arcane Assembler Particle Multiplier")
         public double arcaneAssemblerParticleMultiplier = 1.0;
 
+        @Name("Async Terminal Search")
+        @Comment("Search and sort terminals on a background thread\nKeeps the game responsive with very large networks, results show up a moment later")
+        public boolean asyncTerminalSearch = false;
+
+        @Name("Terminal Search Cache Size")
+        @Comment("Min amount of stacks terminals keep the search and sort strings of\nThe cache grows past this to fit everything a open terminal shows")
+        @Config.RangeInt(min = 256)
+        public int terminalSearchCacheSize = 65536;
+
         private Client() {
 
         }
     }
 
+    public static class Network {
+
+        @Name("Terminal Update Flush Cap")
+        @Comment("Max amount of changed stacks a terminal sends to a player each tick\nThe rest gets sent on the following ticks")
+        @Config.RangeInt(min = 1)
+        public int terminalUpdateFlushCap = 512;
+
+        @Name("Terminal Inventory Bytes Per Tick")
+        @Comment("Max amount of bytes of the network inventory a terminal sends to a player each tick when opened\nLarge networks get streamed over multiple ticks")
+        @Config.RangeInt(min = 1024, max = 8 * 1024 * 1024)
+        public int terminalInventoryBytesPerTick = 128 * 1024;
+
+        private Network() {
+
+        }
+    }
+
     public static class TickRates {
         @Name("Essentia Import Bus Min")
         public int tickTimeEssentiaImportBusMin = 5;
@@ -83,6 +117,11 @@ public class ThEConfig implements IThEConfig {
         @Name("Arcane Assembler Max")
         public int tickTimeArcaneAssemblerMax = 40;
 
+        @Name("Essentia Cell Save Interval")
+        @Comment("Ticks between writing the changes of Essentia Cells in drives and chests to the cells\nWorld saves, unloading chunks and stopping the server always write them")
+        @Config.RangeInt(min = 1, max = 72000)
+        public int tickTimeEssentiaCellSave = 100;
+
         private TickRates() {
 
         }
@@ -103,6 +142,11 @@ public class ThEConfig implements IThEConfig {
         return new HashMap<>(this.essentiaContainerCapacity);
     }
 
+    @Override
+    public int essentiaStorageBusClusterSize() {
+        return essentiaStorageBusClusterSize;
+    }
+
     @Override
     public int tickTimeEssentiaImportBusMin() {
         return tickRates.tickTimeEssentiaImportBusMin;
@@ -143,6 +187,21 @@ public class ThEConfig implements IThEConfig {
         return tickRates.tickTimeArcaneAssemblerMax;
     }
 
+    @Override
+    public int tickTimeEssentiaCellSave() {
+        return tickRates.tickTimeEssentiaCellSave;
+    }
+
+    @Override
+    public int terminalUpdateFlushCap() {
+        return network.terminalUpdateFlushCap;
+    }
+
+    @Override
+    public int terminalInventoryBytesPerTick() {
+        return network.terminalInventoryBytesPerTick;
+    }
+
     @Override
     public TerminalStyle terminalStyle() {
         return client.terminalStyle;
@@ -178,6 +237,16 @@ public class ThEConfig implements IThEConfig {
         return client.arcaneAssemblerParticleMultiplier;
     }
 
+    @Override
+    public boolean asyncTerminalSearch() {
+        return client.asyncTerminalSearch;
+    }
+
+    @Override
+    public int terminalSearchCacheSize() {
+        return client.terminalSearchCacheSize;
+    }
+
     public static void save() {
         ConfigManager.sync(Reference.MOD_ID, Config.Type.INSTANCE);
     }
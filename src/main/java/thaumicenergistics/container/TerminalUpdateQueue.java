@@ -0,0 +1,55 @@
+package thaumicenergistics.container;
+
+import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IItemList;
+
+import java.util.*;
+
+/**
+ * Collects the stacks a ME monitor reported as changed so a terminal can send them at most once per tick
+ * <p>
+ * Repeated changes of the same stack merge into a single entry, the amount sent is looked up when flushing.
+ */
+public class TerminalUpdateQueue<T extends IAEStack<T>> {
+
+    private final Set<T> dirty = new LinkedHashSet<>();
+    private long lastFlush = Long.MIN_VALUE;
+
+    public void markDirty(Iterable<T> changes) {
+        for (T stack : changes)
+            if (stack != null && !this.dirty.contains(stack))
+                this.dirty.add(stack.copy());
+    }
+
+    public boolean isEmpty() {
+        return this.dirty.isEmpty();
+    }
+
+    public void clear() {
+        this.dirty.clear();
+    }
+
+    /**
+     * Resolves up to cap dirty stacks against the storage, anything over the cap stays queued for the next tick
+     *
+     * @param storage Current storage list of the monitor
+     * @param tick    Current world tick
+     * @param cap     Max amount of stacks to return
+     * @return Stacks with their current amount, stacks that are gone are reset. Empty if this tick was already flushed
+     */
+    public List<T> flush(IItemList<T> storage, long tick, int cap) {
+        if (this.dirty.isEmpty() || this.lastFlush == tick)
+            return Collections.emptyList();
+        this.lastFlush = tick;
+
+        List<T> changes = new ArrayList<>(Math.min(cap, this.dirty.size()));
+        Iterator<T> it = this.dirty.iterator();
+        while (it.hasNext() && changes.size() < cap) {
+            T stack = it.next();
+            it.remove();
+            T current = storage.findPrecise(stack);
+            changes.add(current != null ? current : stack.reset());
+        }
+        return changes;
+    }
+}
@@ -39,12 +39,14 @@ import thaumcraft.api.aspects.IEssentiaContainerItem;
 import thaumcraft.api.aura.AuraHelper;
 import thaumcraft.api.crafting.IArcaneRecipe;
 import thaumcraft.api.items.ItemsTC;
+import thaumicenergistics.api.ThEApi;
 import thaumicenergistics.client.gui.GuiHandler;
 import thaumicenergistics.config.AESettings;
 import thaumicenergistics.container.ActionType;
 import thaumicenergistics.container.ContainerBaseTerminal;
 import thaumicenergistics.container.DummyContainer;
 import thaumicenergistics.container.ICraftingContainer;
+import thaumicenergistics.container.TerminalUpdateQueue;
 import thaumicenergistics.container.crafting.ContainerCraftAmountBridge;
 import thaumicenergistics.container.slot.SlotArcaneMatrix;
 import thaumicenergistics.container.slot.SlotArcaneResult;
@@ -63,6 +65,9 @@ import thaumicenergistics.util.inventory.ThEInternalInventory;
 
 import java.io.IOException;
 import java.nio.BufferOverflowException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -76,7 +81,14 @@ public class ContainerArcaneTerminal extends ContainerBaseTerminal implements IM
     protected PartSharedTerminal part;
     protected IItemStorageChannel channel;
     protected IMEMonitor<IAEItemStack> monitor;
-    private final IItemList<IAEItemStack> items = AEApi.instance().storage().getStorageChannel(IItemStorageChannel.class).createList();
+    private final TerminalUpdateQueue<IAEItemStack> updates = new TerminalUpdateQueue<>();
+    /**
+     * Stacks of the inventory snapshot that still have to be sent, see {@link #sendInventory(IContainerListener)}
+     */
+    private final Deque<IAEItemStack> snapshot = new ArrayDeque<>();
+    private EntityPlayerMP snapshotTarget;
+    private boolean snapshotReset;
+    private long lastSnapshotPage = Long.MIN_VALUE;
     protected IInventory craftingResult;
     protected SlotArcaneResult resultSlot;
 
@@ -247,35 +259,25 @@ public class ContainerArcaneTerminal extends ContainerBaseTerminal implements IM
             this.sendVisInfo((IContainerListener) this.player);
 
         if (ForgeUtil.isServer()) {
-            if (!this.items.isEmpty()) {
-                try {
-                    final IItemList<IAEItemStack> monitorCache = this.monitor.getStorageList();
-
-                    final PacketMEItemUpdate packet = new PacketMEItemUpdate();
-
-                    for (final IAEItemStack is : this.items) {
-                        final IAEItemStack send = monitorCache.findPrecise(is);
-                        if (send == null) {
-                            is.setStackSize(0);
+            if (this.monitor != null && !this.updates.isEmpty()) {
+                List<IAEItemStack> changes = this.updates.flush(this.monitor.getStorageList(), this.player.world.getTotalWorldTime(), ThEApi.instance().config().terminalUpdateFlushCap());
+                if (!changes.isEmpty()) {
+                    try {
+                        final PacketMEItemUpdate packet = new PacketMEItemUpdate();
+                        for (final IAEItemStack is : changes)
                             packet.appendStack(is);
-                        } else {
-                            packet.appendStack(send);
-                        }
-                    }
-
-                    if (!packet.isEmpty()) {
-                        this.items.resetStatus();
 
                         for (final Object c : this.listeners) {
                             if (c instanceof EntityPlayer) {
                                 PacketHandler.sendToPlayer((EntityPlayerMP) c, packet);
                             }
                         }
+                    } catch (final IOException e) {
+                        AELog.debug(e);
                     }
-                } catch (final IOException e) {
-                    AELog.debug(e);
                 }
             }
+            this.sendSnapshotPage();
             super.detectAndSendChanges();
         }
     }
@@ -342,13 +344,12 @@ public class ContainerArcaneTerminal extends ContainerBaseTerminal implements IM
 
     @Override
     public void postChange(IBaseMonitor<IAEItemStack> monitor, Iterable<IAEItemStack> change, IActionSource actionSource) {
-        for (IAEItemStack itemStack : change) {
-            items.add(itemStack);
-        }
+        this.updates.markDirty(change);
     }
 
     @Override
     public void onListUpdate() {
+        this.updates.clear();
         for (IContainerListener c : this.listeners) {
             this.sendInventory(c);
         }
@@ -597,28 +598,56 @@ public class ContainerArcaneTerminal extends ContainerBaseTerminal implements IM
         return ItemStack.EMPTY;
     }
 
+    /**
+     * Starts streaming the whole inventory to the listener
+     * <p>
+     * The stacks get sent in pages of {@link thaumicenergistics.api.IThEConfig#terminalInventoryBytesPerTick()}, one
+     * page per tick. Each page is looked up again when it's sent, so changes sent in between are never overwritten
+     * with older amounts.
+     */
     protected void sendInventory(IContainerListener listener) {
         if (ForgeUtil.isClient() || !(listener instanceof EntityPlayerMP) || this.monitor == null)
             return;
 
-        try {
-            PacketMEItemUpdate packet = new PacketMEItemUpdate();
-            IItemList<IAEItemStack> storage = monitor.getStorageList();
+        this.snapshot.clear();
+        for (IAEItemStack stack : this.monitor.getStorageList())
+            this.snapshot.add(stack.copy());
+        this.snapshotTarget = (EntityPlayerMP) listener;
+        this.snapshotReset = true;
+        this.lastSnapshotPage = Long.MIN_VALUE;
+        this.sendSnapshotPage();
+    }
 
-            for (IAEItemStack stack : storage) {
-                try {
-                    packet.appendStack(stack);
-                } catch (BufferOverflowException e) {
-                    PacketHandler.sendToPlayer((EntityPlayerMP) listener, packet);
+    private void sendSnapshotPage() {
+        if (this.snapshotTarget == null || this.monitor == null || (this.snapshot.isEmpty() && !this.snapshotReset))
+            return;
+        long tick = this.player.world.getTotalWorldTime();
+        if (tick == this.lastSnapshotPage)
+            return;
+        this.lastSnapshotPage = tick;
 
-                    packet = new PacketMEItemUpdate();
-                    packet.appendStack(stack);
+        try {
+            int budget = ThEApi.instance().config().terminalInventoryBytesPerTick();
+            IItemList<IAEItemStack> storage = this.monitor.getStorageList();
+            PacketMEItemUpdate packet = new PacketMEItemUpdate(this.snapshotReset);
+            while (!this.snapshot.isEmpty() && packet.getSize() < budget) {
+                IAEItemStack stack = storage.findPrecise(this.snapshot.peek());
+                if (stack != null) {
+                    try {
+                        packet.appendStack(stack);
+                    } catch (BufferOverflowException e) {
+                        break;
+                    }
                 }
+                this.snapshot.poll();
             }
-            PacketHandler.sendToPlayer((EntityPlayerMP) listener, packet);
+            this.snapshotReset = false;
+            PacketHandler.sendToPlayer(this.snapshotTarget, packet);
         } catch (IOException e) {
             ThELog.error("sendInventory", e);
         }
+        if (this.snapshot.isEmpty())
+            this.snapshotTarget = null;
     }
 
     private InventoryCrafting getInvCrafting(IItemHandler handler, IRecipe recipe) {
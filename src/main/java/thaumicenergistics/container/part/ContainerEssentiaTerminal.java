@@ -24,6 +24,7 @@ import thaumicenergistics.api.storage.IEssentiaStorageChannel;
 import thaumicenergistics.config.AESettings;
 import thaumicenergistics.container.ActionType;
 import thaumicenergistics.container.ContainerBaseTerminal;
+import thaumicenergistics.container.TerminalUpdateQueue;
 import thaumicenergistics.network.PacketHandler;
 import thaumicenergistics.network.packets.PacketInvHeldUpdate;
 import thaumicenergistics.network.packets.PacketMEEssentiaUpdate;
@@ -33,6 +34,7 @@ import thaumicenergistics.part.PartEssentiaTerminal;
 import thaumicenergistics.util.AEUtil;
 import thaumicenergistics.util.ForgeUtil;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -42,6 +44,7 @@ public class ContainerEssentiaTerminal extends ContainerBaseTerminal implements
 
     private final PartEssentiaTerminal part;
     private IMEMonitor<IAEEssentiaStack> monitor;
+    private final TerminalUpdateQueue<IAEEssentiaStack> updates = new TerminalUpdateQueue<>();
 
     public ContainerEssentiaTerminal(EntityPlayer player, PartEssentiaTerminal part) {
         super(player, part);
@@ -153,13 +156,30 @@ public class ContainerEssentiaTerminal extends ContainerBaseTerminal implements
 
     @Override
     public void postChange(IBaseMonitor<IAEEssentiaStack> iBaseMonitor, Iterable<IAEEssentiaStack> iterable, IActionSource iActionSource) {
-        for (IContainerListener c : this.listeners) {
-            this.sendInventory(c);
+        this.updates.markDirty(iterable);
+    }
+
+    @Override
+    public void detectAndSendChanges() {
+        if (ForgeUtil.isServer() && this.monitor != null && !this.updates.isEmpty()) {
+            List<IAEEssentiaStack> changes = this.updates.flush(this.monitor.getStorageList(), this.player.world.getTotalWorldTime(), ThEApi.instance().config().terminalUpdateFlushCap());
+            if (!changes.isEmpty()) {
+                PacketMEEssentiaUpdate packet = new PacketMEEssentiaUpdate();
+                for (IAEEssentiaStack stack : changes)
+                    packet.appendStack(stack);
+                for (IContainerListener c : this.listeners) {
+                    if (c instanceof EntityPlayerMP)
+                        PacketHandler.sendToPlayer((EntityPlayerMP) c, packet);
+                }
+            }
         }
+        super.detectAndSendChanges();
     }
 
     @Override
     public void onListUpdate() {
+        // The whole list got invalidated, so a delta is not enough
+        this.updates.clear();
         for (IContainerListener c : this.listeners) {
             this.sendInventory(c);
         }
@@ -183,7 +203,7 @@ public class ContainerEssentiaTerminal extends ContainerBaseTerminal implements
         if (ForgeUtil.isClient() || !(listener instanceof EntityPlayer) || this.monitor == null)
             return;
         IItemList<IAEEssentiaStack> storage = this.monitor.getStorageList();
-        PacketMEEssentiaUpdate packet = new PacketMEEssentiaUpdate();
+        PacketMEEssentiaUpdate packet = new PacketMEEssentiaUpdate(true);
         for (IAEEssentiaStack stack : storage)
             packet.appendStack(stack);
         PacketHandler.sendToPlayer((EntityPlayerMP) listener, packet);
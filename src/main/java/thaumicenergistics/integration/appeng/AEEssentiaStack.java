@@ -6,16 +6,15 @@ import appeng.api.storage.IStorageChannel;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
-import net.minecraftforge.fml.common.network.ByteBufUtils;
 import thaumcraft.api.aspects.Aspect;
+import thaumicenergistics.api.AspectIndex;
 import thaumicenergistics.api.EssentiaStack;
 import thaumicenergistics.api.ThEApi;
 import thaumicenergistics.api.storage.IAEEssentiaStack;
 import thaumicenergistics.api.storage.IEssentiaStorageChannel;
+import thaumicenergistics.integration.appeng.util.EssentiaPacketCodec;
 import thaumicenergistics.item.ItemDummyAspect;
 
-import static java.lang.Math.min;
-
 /**
  * @author BrockWS
  */
@@ -25,7 +24,7 @@ public class AEEssentiaStack implements IAEEssentiaStack, Comparable<AEEssentiaS
     private long stackSize;
     private long countRequestable;
     private boolean isCraftable;
-    private int hash;
+    private int id;
 
     private AEEssentiaStack(Aspect aspect, long amount) {
         this.aspect = aspect;
@@ -35,7 +34,7 @@ public class AEEssentiaStack implements IAEEssentiaStack, Comparable<AEEssentiaS
         this.setStackSize(amount);
         this.setCraftable(false);
         this.setCountRequestable(0);
-        this.hash = this.aspect.hashCode();
+        this.id = AspectIndex.getId(this.aspect);
     }
 
     private AEEssentiaStack(AEEssentiaStack stack) {
@@ -45,13 +44,17 @@ public class AEEssentiaStack implements IAEEssentiaStack, Comparable<AEEssentiaS
         this.setStackSize(stack.getStackSize());
         this.setCraftable(false);
         this.setCountRequestable(0);
-        this.hash = stack.hash;
+        this.id = stack.id;
     }
 
     public static AEEssentiaStack fromEssentiaStack(EssentiaStack stack) {
         if (stack == null)
             return null;
-        return new AEEssentiaStack(stack.getAspect(), stack.getAmount());
+        return new AEEssentiaStack(stack.getAspect(), stack.getAmountLong());
+    }
+
+    public static AEEssentiaStack fromAspect(Aspect aspect, long amount) {
+        return new AEEssentiaStack(aspect, amount);
     }
 
     public static IAEEssentiaStack fromNBT(NBTTagCompound t) {
@@ -59,14 +62,13 @@ public class AEEssentiaStack implements IAEEssentiaStack, Comparable<AEEssentiaS
         if (stack == null)
             return null;
         AEEssentiaStack ae = AEEssentiaStack.fromEssentiaStack(stack);
-        ae.setStackSize(t.getLong("AspectAmount"));
         ae.setCountRequestable(t.getLong("Req"));
         ae.setCraftable(t.getBoolean("Craft"));
-        return new AEEssentiaStack(stack.getAspect(), stack.getAmount());
+        return ae;
     }
 
     public static IAEEssentiaStack fromPacket(ByteBuf buf) {
-        return AEEssentiaStack.fromNBT(ByteBufUtils.readTag(buf));
+        return EssentiaPacketCodec.read(buf);
     }
 
     @Override
@@ -117,7 +119,7 @@ public class AEEssentiaStack implements IAEEssentiaStack, Comparable<AEEssentiaS
 
     @Override
     public void incStackSize(long l) {
-        this.setStackSize(min(Integer.MAX_VALUE, this.getStackSize() + l));
+        this.setStackSize(this.getStackSize() + l);
     }
 
     @Override
@@ -140,9 +142,16 @@ public class AEEssentiaStack implements IAEEssentiaStack, Comparable<AEEssentiaS
         return this.aspect;
     }
 
+    /**
+     * @return {@link AspectIndex} ID of the aspect
+     */
+    public int getAspectId() {
+        return this.id;
+    }
+
     @Override
     public EssentiaStack getStack() {
-        return new EssentiaStack(this.getAspect(), (int) min(Integer.MAX_VALUE, this.stackSize));
+        return new EssentiaStack(this.getAspect(), this.stackSize);
     }
 
     @Override
@@ -164,9 +173,7 @@ public class AEEssentiaStack implements IAEEssentiaStack, Comparable<AEEssentiaS
 
     @Override
     public void writeToPacket(ByteBuf buf) {
-        NBTTagCompound tag = new NBTTagCompound();
-        this.writeToNBT(tag);
-        ByteBufUtils.writeTag(buf, tag);
+        EssentiaPacketCodec.write(buf, this);
     }
 
     @Override
@@ -212,22 +219,24 @@ public class AEEssentiaStack implements IAEEssentiaStack, Comparable<AEEssentiaS
 
     @Override
     public int compareTo(AEEssentiaStack o) {
-        int diff = this.hashCode() - o.hashCode();
-        return Integer.compare(diff, 0);
+        return Integer.compare(this.id, o.id);
     }
 
     @Override
     public int hashCode() {
-        return this.hash;
+        return this.id;
     }
 
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof AEEssentiaStack) {
-            return ((AEEssentiaStack) obj).getAspect().getTag().equalsIgnoreCase(this.getAspect().getTag());
+            return ((AEEssentiaStack) obj).id == this.id;
+        }
+        if (obj instanceof IAEEssentiaStack) {
+            return AspectIndex.getId(((IAEEssentiaStack) obj).getAspect()) == this.id;
         }
         if (obj instanceof EssentiaStack) {
-            return ((EssentiaStack) obj).getAspect().getTag().equalsIgnoreCase(this.getAspect().getTag());
+            return AspectIndex.getId(((EssentiaStack) obj).getAspect()) == this.id;
         }
         return false;
     }
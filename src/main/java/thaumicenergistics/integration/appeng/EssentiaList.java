@@ -1,32 +1,44 @@
 package thaumicenergistics.integration.appeng;
 
+import appeng.api.AEApi;
 import appeng.api.config.FuzzyMode;
+import appeng.api.storage.IStorageChannel;
 import appeng.api.storage.data.IItemList;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import thaumcraft.api.aspects.Aspect;
+import thaumicenergistics.api.AspectIndex;
+import thaumicenergistics.api.EssentiaStack;
 import thaumicenergistics.api.storage.IAEEssentiaStack;
-import thaumicenergistics.api.util.MeaningfulEssentiaIterator;
+import thaumicenergistics.api.storage.IEssentiaStorageChannel;
+import thaumicenergistics.integration.appeng.util.EssentiaPacketCodec;
 
 import java.util.*;
 
 /**
+ * Dense essentia list, every aspect uses its {@link AspectIndex} ID as slot and the amount, requestable count and craftable flag of each
+ * slot are kept in parallel arrays.
+ * <p>
+ * Stacks handed out by {@link #findPrecise(IAEEssentiaStack)} and the iterator are live views of a slot, use
+ * {@link IAEEssentiaStack#copy()} to keep a snapshot.
+ *
  * @author BrockWS
  */
 public class EssentiaList implements IItemList<IAEEssentiaStack> {
 
-    private final Map<IAEEssentiaStack, IAEEssentiaStack> records = new HashMap<>();
+    private long[] amounts = new long[0];
+    private long[] requestable = new long[0];
+    private boolean[] craftable = new boolean[0];
+    private Entry[] entries = new Entry[0];
 
     @Override
     public void addStorage(IAEEssentiaStack option) {
         if (option == null)
             return;
 
-        IAEEssentiaStack st = this.getEssentiaRecord(option);
-        if (st != null) {
-            st.incStackSize(option.getStackSize());
-            return;
-        }
-
-        IAEEssentiaStack opt = option.copy();
-        this.putEssentiaRecord(opt);
+        int slot = this.getSlot(option.getAspect());
+        this.amounts[slot] += option.getStackSize();
     }
 
     @Override
@@ -34,16 +46,7 @@ public class EssentiaList implements IItemList<IAEEssentiaStack> {
         if (option == null)
             return;
 
-        IAEEssentiaStack st = this.getEssentiaRecord(option);
-        if (st != null) {
-            st.setCraftable(true);
-            return;
-        }
-
-        IAEEssentiaStack opt = option.copy();
-        opt.setStackSize(0);
-        opt.setCraftable(true);
-        this.putEssentiaRecord(opt);
+        this.craftable[this.getSlot(option.getAspect())] = true;
     }
 
     @Override
@@ -51,40 +54,36 @@ public class EssentiaList implements IItemList<IAEEssentiaStack> {
         if (option == null)
             return;
 
-        IAEEssentiaStack st = this.getEssentiaRecord(option);
-        if (st != null) {
-            st.setCountRequestable(st.getCountRequestable() + option.getCountRequestable());
-            return;
-        }
-
-        IAEEssentiaStack opt = option.copy();
-        opt.setStackSize(0);
-        opt.setCraftable(false);
-        opt.setCountRequestable(option.getCountRequestable());
-        this.putEssentiaRecord(opt);
+        this.requestable[this.getSlot(option.getAspect())] += option.getCountRequestable();
     }
 
     @Override
     public IAEEssentiaStack getFirstItem() {
-        for (IAEEssentiaStack stack : this)
-            return stack;
+        for (int slot = 0; slot < this.amounts.length; slot++)
+            if (this.isMeaningful(slot))
+                return this.getEntry(slot);
         return null;
     }
 
     @Override
     public int size() {
-        return this.records.values().size();
+        int size = 0;
+        for (int slot = 0; slot < this.amounts.length; slot++)
+            if (this.isMeaningful(slot))
+                size++;
+        return size;
     }
 
     @Override
     public Iterator<IAEEssentiaStack> iterator() {
-        return new MeaningfulEssentiaIterator<>(this.records.values().iterator());
+        return new EntryIterator();
     }
 
     @Override
     public void resetStatus() {
-        for (IAEEssentiaStack s : this)
-            s.reset();
+        Arrays.fill(this.amounts, 0);
+        Arrays.fill(this.requestable, 0);
+        Arrays.fill(this.craftable, false);
     }
 
     @Override
@@ -92,36 +91,266 @@ public class EssentiaList implements IItemList<IAEEssentiaStack> {
         if (option == null)
             return;
 
-        IAEEssentiaStack stack = this.getEssentiaRecord(option);
-        if (stack != null) {
-            stack.add(option);
-            return;
-        }
-
-        IAEEssentiaStack opt = option.copy();
-        this.putEssentiaRecord(opt);
+        int slot = this.getSlot(option.getAspect());
+        this.amounts[slot] += option.getStackSize();
+        this.requestable[slot] += option.getCountRequestable();
+        this.craftable[slot] |= option.isCraftable();
     }
 
     @Override
     public IAEEssentiaStack findPrecise(IAEEssentiaStack stack) {
-        return stack == null ? null : this.getEssentiaRecord(stack);
+        if (stack == null || stack.getAspect() == null)
+            return null;
+        int slot = this.findSlot(stack.getAspect());
+        return slot > -1 && this.isMeaningful(slot) ? this.getEntry(slot) : null;
     }
 
     @Override
     public Collection<IAEEssentiaStack> findFuzzy(IAEEssentiaStack stack, FuzzyMode mode) {
-        return stack == null ? Collections.emptyList() : Collections.singletonList(this.findPrecise(stack));
+        IAEEssentiaStack found = this.findPrecise(stack);
+        return found == null ? Collections.emptyList() : Collections.singletonList(found);
     }
 
     @Override
     public boolean isEmpty() {
-        return !this.iterator().hasNext();
+        for (int slot = 0; slot < this.amounts.length; slot++)
+            if (this.isMeaningful(slot))
+                return false;
+        return true;
+    }
+
+    private boolean isMeaningful(int slot) {
+        return this.amounts[slot] != 0 || this.requestable[slot] > 0 || this.craftable[slot];
+    }
+
+    private void clearSlot(int slot) {
+        this.amounts[slot] = 0;
+        this.requestable[slot] = 0;
+        this.craftable[slot] = false;
+    }
+
+    private Entry getEntry(int slot) {
+        Entry entry = this.entries[slot];
+        if (entry == null)
+            entry = this.entries[slot] = new Entry(slot);
+        return entry;
+    }
+
+    /**
+     * Slot of the aspect in this list, growing the backing arrays when the aspect is new to the list
+     */
+    private int getSlot(Aspect aspect) {
+        if (aspect == null)
+            throw new IllegalArgumentException("Aspect is null");
+        int slot = AspectIndex.getId(aspect);
+        if (slot >= this.amounts.length) {
+            int size = Math.max(slot + 1, AspectIndex.size());
+            this.amounts = Arrays.copyOf(this.amounts, size);
+            this.requestable = Arrays.copyOf(this.requestable, size);
+            this.craftable = Arrays.copyOf(this.craftable, size);
+            this.entries = Arrays.copyOf(this.entries, size);
+        }
+        return slot;
+    }
+
+    /**
+     * Slot of the aspect in this list, or -1 if this list never held it
+     */
+    private int findSlot(Aspect aspect) {
+        int slot = AspectIndex.getId(aspect);
+        return slot < this.amounts.length ? slot : -1;
     }
 
-    private IAEEssentiaStack getEssentiaRecord(IAEEssentiaStack stack) {
-        return this.records.get(stack);
+    private class EntryIterator implements Iterator<IAEEssentiaStack> {
+
+        private int next = -1;
+        private int current = -1;
+
+        @Override
+        public boolean hasNext() {
+            if (this.next <= this.current)
+                this.next = this.seek(this.current + 1);
+            return this.next < EssentiaList.this.amounts.length;
+        }
+
+        @Override
+        public IAEEssentiaStack next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            this.current = this.next;
+            return EssentiaList.this.getEntry(this.current);
+        }
+
+        @Override
+        public void remove() {
+            if (this.current < 0)
+                throw new IllegalStateException();
+            EssentiaList.this.clearSlot(this.current);
+        }
+
+        private int seek(int from) {
+            int slot = from;
+            while (slot < EssentiaList.this.amounts.length && !EssentiaList.this.isMeaningful(slot))
+                slot++;
+            return slot;
+        }
     }
 
-    private IAEEssentiaStack putEssentiaRecord(IAEEssentiaStack stack) {
-        return this.records.put(stack, stack);
+    /**
+     * Live view of a single slot
+     */
+    private class Entry implements IAEEssentiaStack {
+
+        private final int slot;
+        private final Aspect aspect;
+
+        private Entry(int slot) {
+            this.slot = slot;
+            this.aspect = AspectIndex.getAspect(slot);
+        }
+
+        @Override
+        public Aspect getAspect() {
+            return this.aspect;
+        }
+
+        @Override
+        public EssentiaStack getStack() {
+            return new EssentiaStack(this.aspect, this.getStackSize());
+        }
+
+        @Override
+        public void add(IAEEssentiaStack option) {
+            if (option == null)
+                return;
+            this.incStackSize(option.getStackSize());
+            this.incCountRequestable(option.getCountRequestable());
+            this.setCraftable(this.isCraftable() || option.isCraftable());
+        }
+
+        @Override
+        public long getStackSize() {
+            return EssentiaList.this.amounts[this.slot];
+        }
+
+        @Override
+        public IAEEssentiaStack setStackSize(long l) {
+            EssentiaList.this.amounts[this.slot] = l;
+            return this;
+        }
+
+        @Override
+        public long getCountRequestable() {
+            return EssentiaList.this.requestable[this.slot];
+        }
+
+        @Override
+        public IAEEssentiaStack setCountRequestable(long l) {
+            EssentiaList.this.requestable[this.slot] = l;
+            return this;
+        }
+
+        @Override
+        public boolean isCraftable() {
+            return EssentiaList.this.craftable[this.slot];
+        }
+
+        @Override
+        public IAEEssentiaStack setCraftable(boolean b) {
+            EssentiaList.this.craftable[this.slot] = b;
+            return this;
+        }
+
+        @Override
+        public IAEEssentiaStack reset() {
+            EssentiaList.this.clearSlot(this.slot);
+            return this;
+        }
+
+        @Override
+        public boolean isMeaningful() {
+            return EssentiaList.this.isMeaningful(this.slot);
+        }
+
+        @Override
+        public void incStackSize(long l) {
+            this.setStackSize(this.getStackSize() + l);
+        }
+
+        @Override
+        public void decStackSize(long l) {
+            this.setStackSize(this.getStackSize() - l);
+        }
+
+        @Override
+        public void incCountRequestable(long l) {
+            this.setCountRequestable(this.getCountRequestable() + l);
+        }
+
+        @Override
+        public void decCountRequestable(long l) {
+            this.setCountRequestable(this.getCountRequestable() - l);
+        }
+
+        @Override
+        public void writeToNBT(NBTTagCompound t) {
+            this.copy().writeToNBT(t);
+        }
+
+        @Override
+        public boolean fuzzyComparison(IAEEssentiaStack other, FuzzyMode mode) {
+            return this.aspect == other.getAspect();
+        }
+
+        @Override
+        public void writeToPacket(ByteBuf buf) {
+            EssentiaPacketCodec.write(buf, this);
+        }
+
+        @Override
+        public IAEEssentiaStack copy() {
+            return AEEssentiaStack.fromAspect(this.aspect, this.getStackSize())
+                    .setCountRequestable(this.getCountRequestable())
+                    .setCraftable(this.isCraftable());
+        }
+
+        @Override
+        public IAEEssentiaStack empty() {
+            return AEEssentiaStack.fromAspect(this.aspect, 0);
+        }
+
+        @Override
+        public boolean isItem() {
+            return false;
+        }
+
+        @Override
+        public boolean isFluid() {
+            return false;
+        }
+
+        @Override
+        public IStorageChannel<IAEEssentiaStack> getChannel() {
+            return AEApi.instance().storage().getStorageChannel(IEssentiaStorageChannel.class);
+        }
+
+        @Override
+        public ItemStack asItemStackRepresentation() {
+            return this.copy().asItemStackRepresentation();
+        }
+
+        @Override
+        public int hashCode() {
+            return this.slot;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof IAEEssentiaStack)
+                return AspectIndex.getId(((IAEEssentiaStack) obj).getAspect()) == this.slot;
+            if (obj instanceof EssentiaStack)
+                return AspectIndex.getId(((EssentiaStack) obj).getAspect()) == this.slot;
+            return false;
+        }
     }
 }
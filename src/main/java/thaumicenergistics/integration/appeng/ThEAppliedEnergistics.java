@@ -14,6 +14,9 @@ import thaumicenergistics.api.storage.IAEEssentiaStack;
 import thaumicenergistics.api.storage.IEssentiaStorageChannel;
 import thaumicenergistics.integration.IThEIntegration;
 import thaumicenergistics.integration.appeng.cell.CreativeEssentiaCellHandler;
+import thaumicenergistics.integration.appeng.cell.EssentiaCellHandler;
+import thaumicenergistics.integration.appeng.grid.EssentiaTransferGrid;
+import thaumicenergistics.integration.appeng.grid.IEssentiaTransferGrid;
 import thaumicenergistics.item.ItemDummyAspect;
 
 import javax.annotation.Nonnull;
@@ -27,6 +30,9 @@ public class ThEAppliedEnergistics implements IThEIntegration {
     @Override
     public void preInit() {
         AEApi.instance().storage().registerStorageChannel(IEssentiaStorageChannel.class, new EssentiaStorageChannel());
+        AEApi.instance().registries().gridCache().registerGridCache(IEssentiaTransferGrid.class, EssentiaTransferGrid.class);
+        // AE uses the first handler accepting a cell and adds its basic one in init, so ours has to come before
+        AEApi.instance().registries().cell().addCellHandler(new EssentiaCellHandler());
     }
 
     @Override
@@ -46,6 +52,7 @@ public class ThEAppliedEnergistics implements IThEIntegration {
         ThEApi.instance().items().essentiaStorageBus().maybeStack(1).ifPresent(stack -> {
             Upgrades.INVERTER.registerItem(stack, 1);
             Upgrades.CAPACITY.registerItem(stack, 5);
+            Upgrades.FUZZY.registerItem(stack, 1);
         });
     }
 
@@ -13,24 +13,39 @@ import net.minecraft.item.ItemStack;
 import thaumcraft.api.aspects.Aspect;
 import thaumicenergistics.api.storage.IAEEssentiaStack;
 import thaumicenergistics.api.storage.IEssentiaStorageChannel;
-import thaumicenergistics.integration.appeng.EssentiaList;
+import thaumicenergistics.integration.appeng.AEEssentiaStack;
 import thaumicenergistics.util.AEUtil;
 
 import javax.annotation.Nullable;
 
 /**
+ * Every creative cell shares one instance, the stacks it hands out are built once on first use and never changed
+ *
  * @author BrockWS
  */
 public class CreativeEssentiaCellInventory implements ICellInventoryHandler<IAEEssentiaStack> {
 
-    private IItemList<IAEEssentiaStack> storedAspects = new EssentiaList();
+    private static final CreativeEssentiaCellInventory INSTANCE = new CreativeEssentiaCellInventory();
+
+    private volatile IAEEssentiaStack[] storedAspects;
 
     private CreativeEssentiaCellInventory() {
-        Aspect.aspects.forEach((s, aspect) -> storedAspects.add(AEUtil.getAEStackFromAspect(aspect, Integer.MAX_VALUE)));
     }
 
     public static ICellInventoryHandler getCell(ItemStack s, ISaveProvider c) {
-        return new CreativeEssentiaCellInventory();
+        return INSTANCE;
+    }
+
+    private IAEEssentiaStack[] getStoredAspects() {
+        IAEEssentiaStack[] stored = this.storedAspects;
+        // Rebuilt if an addon registered aspects after the first use
+        if (stored == null || stored.length != Aspect.aspects.size()) {
+            stored = Aspect.aspects.values().stream()
+                    .map(aspect -> AEUtil.getAEStackFromAspect(aspect, Integer.MAX_VALUE))
+                    .toArray(IAEEssentiaStack[]::new);
+            this.storedAspects = stored;
+        }
+        return stored;
     }
 
     @Nullable
@@ -91,12 +106,16 @@ public class CreativeEssentiaCellInventory implements ICellInventoryHandler<IAEE
 
     @Override
     public IAEEssentiaStack extractItems(IAEEssentiaStack stack, Actionable actionable, IActionSource src) {
-        return stack.copy();
+        if (stack == null || stack.getStackSize() < 1)
+            return null;
+        // A standalone stack can go straight back, only live views of a list need copying
+        return stack instanceof AEEssentiaStack ? stack : stack.copy();
     }
 
     @Override
     public IItemList<IAEEssentiaStack> getAvailableItems(IItemList<IAEEssentiaStack> list) {
-        this.storedAspects.forEach(list::add);
+        for (IAEEssentiaStack stack : this.getStoredAspects())
+            list.add(stack);
         return list;
     }
 
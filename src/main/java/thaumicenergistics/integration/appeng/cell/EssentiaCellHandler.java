@@ -0,0 +1,50 @@
+package thaumicenergistics.integration.appeng.cell;
+
+import appeng.api.AEApi;
+import appeng.api.storage.ICellHandler;
+import appeng.api.storage.ICellInventoryHandler;
+import appeng.api.storage.ISaveProvider;
+import appeng.api.storage.IStorageChannel;
+import appeng.api.storage.data.IAEStack;
+import net.minecraft.item.ItemStack;
+import thaumicenergistics.api.storage.IEssentiaStorageChannel;
+import thaumicenergistics.item.ItemEssentiaCell;
+
+/**
+ * Handles the essentia cells instead of AE's basic cell handler, see {@link EssentiaCellInventory}
+ */
+public class EssentiaCellHandler implements ICellHandler {
+
+    @Override
+    public boolean isCell(ItemStack stack) {
+        return !stack.isEmpty() && stack.getItem() instanceof ItemEssentiaCell;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends IAEStack<T>> ICellInventoryHandler<T> getCellInventory(ItemStack stack, ISaveProvider container, IStorageChannel<T> channel) {
+        if (!this.isCell(stack) || channel != this.getEssentiaStorageChannel())
+            return null;
+        // The drive reads its cells again after one got removed and AE reads a copy of the removed one, write everything
+        // still pending first
+        EssentiaCellSaveQueue.flush(stack);
+        if (container != null)
+            EssentiaCellSaveQueue.flush(container);
+        EssentiaCellInventory cell = new EssentiaCellInventory(stack, (ItemEssentiaCell) stack.getItem(), container);
+        return (ICellInventoryHandler<T>) new EssentiaCellInventoryHandler(cell);
+    }
+
+    @Override
+    public <T extends IAEStack<T>> int getStatusForCell(ItemStack is, ICellInventoryHandler<T> handler) {
+        return handler == null || handler.getCellInv() == null ? 0 : handler.getCellInv().getStatusForCell();
+    }
+
+    @Override
+    public <T extends IAEStack<T>> double cellIdleDrain(ItemStack is, ICellInventoryHandler<T> handler) {
+        return handler == null || handler.getCellInv() == null ? 0 : handler.getCellInv().getIdleDrain();
+    }
+
+    private IStorageChannel getEssentiaStorageChannel() {
+        return AEApi.instance().storage().getStorageChannel(IEssentiaStorageChannel.class);
+    }
+}
@@ -0,0 +1,334 @@
+package thaumicenergistics.integration.appeng.cell;
+
+import appeng.api.config.Actionable;
+import appeng.api.config.FuzzyMode;
+import appeng.api.implementations.items.IStorageCell;
+import appeng.api.networking.security.IActionSource;
+import appeng.api.storage.ICellInventory;
+import appeng.api.storage.ISaveProvider;
+import appeng.api.storage.IStorageChannel;
+import appeng.api.storage.data.IItemList;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.items.IItemHandler;
+import thaumcraft.api.aspects.Aspect;
+import thaumicenergistics.api.AspectIndex;
+import thaumicenergistics.api.storage.IAEEssentiaStack;
+import thaumicenergistics.integration.appeng.AEEssentiaStack;
+import thaumicenergistics.integration.appeng.EssentiaList;
+import thaumicenergistics.integration.appeng.util.EssentiaPacketCodec;
+
+import java.util.BitSet;
+
+/**
+ * Essentia stored on a cell item
+ * <p>
+ * The cell tag holds one entry per aspect, keyed by the aspect tag with the amount packed as a varint. Only the
+ * aspects that changed since the last {@link #persist()} get written again. Cells written in the AE layout are read
+ * as well and converted on their first save.
+ * <p>
+ * Cells with a save provider only write their changes when {@link EssentiaCellSaveQueue} flushes them.
+ */
+public class EssentiaCellInventory implements ICellInventory<IAEEssentiaStack> {
+
+    private static final String TAG_ESSENTIA = "essentia";
+    private static final String TAG_LEGACY_TYPES = "it";
+    private static final String TAG_LEGACY_COUNT = "ic";
+    private static final String TAG_LEGACY_SLOT = "#";
+    private static final String TAG_LEGACY_SLOT_COUNT = "@";
+
+    private final ItemStack cellStack;
+    private final IStorageCell<IAEEssentiaStack> cellType;
+    private final ISaveProvider container;
+    private final IStorageChannel<IAEEssentiaStack> channel;
+    private final EssentiaList stored = new EssentiaList();
+    private final BitSet dirty = new BitSet();
+    private final int unitsPerByte;
+    private int legacyTypes = -1;
+    private long storedCount;
+    private int storedTypes;
+
+    public EssentiaCellInventory(ItemStack cellStack, IStorageCell<IAEEssentiaStack> cellType, ISaveProvider container) {
+        this.cellStack = cellStack;
+        this.cellType = cellType;
+        this.container = container;
+        this.channel = cellType.getChannel();
+        this.unitsPerByte = this.channel.getUnitsPerByte();
+        this.load();
+    }
+
+    private void load() {
+        NBTTagCompound tag = this.cellStack.getTagCompound();
+        if (tag == null)
+            return;
+        NBTTagCompound essentia = tag.getCompoundTag(TAG_ESSENTIA);
+        for (String key : essentia.getKeySet()) {
+            Aspect aspect = AspectIndex.getAspect(key);
+            long amount = EssentiaCellInventory.unpack(essentia.getByteArray(key));
+            if (aspect != null && amount > 0)
+                this.load(aspect, amount);
+        }
+
+        if (!tag.hasKey(TAG_LEGACY_TYPES))
+            return;
+        this.legacyTypes = tag.getInteger(TAG_LEGACY_TYPES);
+        for (int i = 0; i < this.legacyTypes; i++) {
+            NBTTagCompound slot = tag.getCompoundTag(TAG_LEGACY_SLOT + i);
+            Aspect aspect = AspectIndex.getAspect(slot.getString("Aspect"));
+            long amount = tag.hasKey(TAG_LEGACY_SLOT_COUNT + i) ? tag.getLong(TAG_LEGACY_SLOT_COUNT + i) : slot.getLong("Amount");
+            if (aspect == null || amount < 1)
+                continue;
+            this.load(aspect, amount);
+            this.dirty.set(AspectIndex.getId(aspect));
+        }
+    }
+
+    private void load(Aspect aspect, long amount) {
+        IAEEssentiaStack existing = this.stored.findPrecise(AEEssentiaStack.fromAspect(aspect, 0));
+        if (existing == null)
+            this.storedTypes++;
+        this.stored.addStorage(AEEssentiaStack.fromAspect(aspect, amount));
+        this.storedCount += amount;
+    }
+
+    @Override
+    public IAEEssentiaStack injectItems(IAEEssentiaStack input, Actionable mode, IActionSource src) {
+        if (input == null || input.getStackSize() < 1)
+            return null;
+        if (this.cellType.isBlackListed(this.cellStack, input))
+            return input;
+
+        IAEEssentiaStack existing = this.stored.findPrecise(input);
+        long remaining;
+        if (existing != null)
+            remaining = this.getRemainingItemCount();
+        else if (this.canHoldNewItem())
+            remaining = this.getRemainingItemCount() - (long) this.getBytesPerType() * this.unitsPerByte;
+        else
+            return input;
+        if (remaining < 1)
+            return input;
+
+        long amount = Math.min(remaining, input.getStackSize());
+        if (mode == Actionable.MODULATE)
+            this.change(input.getAspect(), amount);
+        if (amount == input.getStackSize())
+            return null;
+        IAEEssentiaStack notInjected = input.copy();
+        notInjected.decStackSize(amount);
+        return notInjected;
+    }
+
+    @Override
+    public IAEEssentiaStack extractItems(IAEEssentiaStack request, Actionable mode, IActionSource src) {
+        if (request == null)
+            return null;
+        IAEEssentiaStack existing = this.stored.findPrecise(request);
+        if (existing == null)
+            return null;
+
+        long amount = Math.min(existing.getStackSize(), request.getStackSize());
+        if (amount < 1)
+            return null;
+        if (mode == Actionable.MODULATE)
+            this.change(request.getAspect(), -amount);
+        return request.copy().setStackSize(amount);
+    }
+
+    private void change(Aspect aspect, long amount) {
+        IAEEssentiaStack existing = this.stored.findPrecise(AEEssentiaStack.fromAspect(aspect, 0));
+        long before = existing == null ? 0 : existing.getStackSize();
+        long after = before + amount;
+        if (existing != null)
+            existing.setStackSize(after);
+        else
+            this.stored.addStorage(AEEssentiaStack.fromAspect(aspect, after));
+
+        this.storedCount += amount;
+        if (before < 1 && after > 0)
+            this.storedTypes++;
+        else if (before > 0 && after < 1)
+            this.storedTypes--;
+        this.dirty.set(AspectIndex.getId(aspect));
+        if (this.container != null)
+            EssentiaCellSaveQueue.enqueue(this);
+        else
+            this.persist();
+    }
+
+    ISaveProvider getContainer() {
+        return this.container;
+    }
+
+    /**
+     * Writes the pending changes and lets the save provider know
+     */
+    void flush() {
+        this.persist();
+        if (this.container != null)
+            this.container.saveChanges(this);
+    }
+
+    /**
+     * Writes the aspects that changed since the last call into the cell
+     */
+    @Override
+    public void persist() {
+        if (this.dirty.isEmpty() && this.legacyTypes < 0)
+            return;
+        NBTTagCompound tag = this.cellStack.getTagCompound();
+        if (tag == null)
+            this.cellStack.setTagCompound(tag = new NBTTagCompound());
+
+        if (this.legacyTypes > -1) {
+            for (int i = 0; i < this.legacyTypes; i++) {
+                tag.removeTag(TAG_LEGACY_SLOT + i);
+                tag.removeTag(TAG_LEGACY_SLOT_COUNT + i);
+            }
+            tag.removeTag(TAG_LEGACY_TYPES);
+            tag.removeTag(TAG_LEGACY_COUNT);
+            this.legacyTypes = -1;
+        }
+
+        NBTTagCompound essentia = tag.getCompoundTag(TAG_ESSENTIA);
+        for (int id = this.dirty.nextSetBit(0); id > -1; id = this.dirty.nextSetBit(id + 1)) {
+            Aspect aspect = AspectIndex.getAspect(id);
+            IAEEssentiaStack stack = this.stored.findPrecise(AEEssentiaStack.fromAspect(aspect, 0));
+            if (stack == null || stack.getStackSize() < 1)
+                essentia.removeTag(aspect.getTag());
+            else
+                essentia.setByteArray(aspect.getTag(), EssentiaCellInventory.pack(stack.getStackSize()));
+        }
+        this.dirty.clear();
+
+        if (essentia.isEmpty())
+            tag.removeTag(TAG_ESSENTIA);
+        else
+            tag.setTag(TAG_ESSENTIA, essentia);
+        if (tag.isEmpty())
+            this.cellStack.setTagCompound(null);
+    }
+
+    private static byte[] pack(long amount) {
+        ByteBuf buf = Unpooled.buffer(10);
+        EssentiaPacketCodec.writeVarLong(buf, amount);
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.readBytes(bytes);
+        return bytes;
+    }
+
+    private static long unpack(byte[] bytes) {
+        return bytes.length < 1 ? 0 : EssentiaPacketCodec.readVarLong(Unpooled.wrappedBuffer(bytes));
+    }
+
+    @Override
+    public IItemList<IAEEssentiaStack> getAvailableItems(IItemList<IAEEssentiaStack> list) {
+        for (IAEEssentiaStack stack : this.stored)
+            list.add(stack);
+        return list;
+    }
+
+    @Override
+    public IStorageChannel<IAEEssentiaStack> getChannel() {
+        return this.channel;
+    }
+
+    @Override
+    public ItemStack getItemStack() {
+        return this.cellStack;
+    }
+
+    @Override
+    public double getIdleDrain() {
+        return this.cellType.getIdleDrain();
+    }
+
+    @Override
+    public FuzzyMode getFuzzyMode() {
+        return this.cellType.getFuzzyMode(this.cellStack);
+    }
+
+    @Override
+    public IItemHandler getConfigInventory() {
+        return this.cellType.getConfigInventory(this.cellStack);
+    }
+
+    @Override
+    public IItemHandler getUpgradesInventory() {
+        return this.cellType.getUpgradesInventory(this.cellStack);
+    }
+
+    @Override
+    public int getBytesPerType() {
+        return this.cellType.getBytesPerType(this.cellStack);
+    }
+
+    @Override
+    public boolean canHoldNewItem() {
+        long free = this.getFreeBytes();
+        return (free > this.getBytesPerType() || (free == this.getBytesPerType() && this.getUnusedItemCount() > 0)) && this.getRemainingItemTypes() > 0;
+    }
+
+    @Override
+    public long getTotalBytes() {
+        return this.cellType.getBytes(this.cellStack);
+    }
+
+    @Override
+    public long getFreeBytes() {
+        return this.getTotalBytes() - this.getUsedBytes();
+    }
+
+    @Override
+    public long getUsedBytes() {
+        long bytesForCount = (this.getStoredItemCount() + this.getUnusedItemCount()) / this.unitsPerByte;
+        return this.getStoredItemTypes() * this.getBytesPerType() + bytesForCount;
+    }
+
+    @Override
+    public long getTotalItemTypes() {
+        return this.cellType.getTotalTypes(this.cellStack);
+    }
+
+    @Override
+    public long getStoredItemCount() {
+        return this.storedCount;
+    }
+
+    @Override
+    public long getStoredItemTypes() {
+        return this.storedTypes;
+    }
+
+    @Override
+    public long getRemainingItemTypes() {
+        return Math.max(0, this.getTotalItemTypes() - this.getStoredItemTypes());
+    }
+
+    @Override
+    public long getRemainingItemCount() {
+        return Math.max(0, this.getFreeBytes() * this.unitsPerByte + this.getUnusedItemCount());
+    }
+
+    @Override
+    public int getUnusedItemCount() {
+        int div = (int) (this.getStoredItemCount() % this.unitsPerByte);
+        return div == 0 ? 0 : this.unitsPerByte - div;
+    }
+
+    /**
+     * @return 4 if empty, 1 if new aspects fit, 2 if only more of the stored aspects fit and 3 if full
+     */
+    @Override
+    public int getStatusForCell() {
+        if (this.getUsedBytes() == 0)
+            return 4;
+        if (this.canHoldNewItem())
+            return 1;
+        if (this.getRemainingItemCount() > 0)
+            return 2;
+        return 3;
+    }
+}
@@ -0,0 +1,118 @@
+package thaumicenergistics.integration.appeng.cell;
+
+import appeng.api.config.AccessRestriction;
+import appeng.api.config.Actionable;
+import appeng.api.config.IncludeExclude;
+import appeng.api.networking.security.IActionSource;
+import appeng.api.storage.ICellInventory;
+import appeng.api.storage.ICellInventoryHandler;
+import appeng.api.storage.IStorageChannel;
+import appeng.api.storage.data.IItemList;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+import thaumcraft.api.aspects.Aspect;
+import thaumicenergistics.api.AspectIndex;
+import thaumicenergistics.api.storage.IAEEssentiaStack;
+import thaumicenergistics.item.ItemDummyAspect;
+
+import java.util.BitSet;
+
+/**
+ * Applies the partition set in the cell workbench to an {@link EssentiaCellInventory}
+ */
+public class EssentiaCellInventoryHandler implements ICellInventoryHandler<IAEEssentiaStack> {
+
+    private final EssentiaCellInventory cell;
+    private final BitSet partition = new BitSet();
+
+    public EssentiaCellInventoryHandler(EssentiaCellInventory cell) {
+        this.cell = cell;
+        IItemHandler config = cell.getConfigInventory();
+        if (config == null)
+            return;
+        for (int slot = 0; slot < config.getSlots(); slot++) {
+            ItemStack stack = config.getStackInSlot(slot);
+            if (stack.isEmpty() || !(stack.getItem() instanceof ItemDummyAspect))
+                continue;
+            Aspect aspect = ((ItemDummyAspect) stack.getItem()).getAspect(stack);
+            if (aspect != null)
+                this.partition.set(AspectIndex.getId(aspect));
+        }
+    }
+
+    @Override
+    public ICellInventory<IAEEssentiaStack> getCellInv() {
+        return this.cell;
+    }
+
+    @Override
+    public boolean isPreformatted() {
+        return !this.partition.isEmpty();
+    }
+
+    @Override
+    public boolean isFuzzy() {
+        return false;
+    }
+
+    @Override
+    public IncludeExclude getIncludeExcludeMode() {
+        return IncludeExclude.WHITELIST;
+    }
+
+    @Override
+    public AccessRestriction getAccess() {
+        return AccessRestriction.READ_WRITE;
+    }
+
+    @Override
+    public boolean isPrioritized(IAEEssentiaStack stack) {
+        return this.isPreformatted() && this.isInPartition(stack);
+    }
+
+    @Override
+    public boolean canAccept(IAEEssentiaStack stack) {
+        return !this.isPreformatted() || this.isInPartition(stack);
+    }
+
+    private boolean isInPartition(IAEEssentiaStack stack) {
+        return stack != null && stack.getAspect() != null && this.partition.get(AspectIndex.getId(stack.getAspect()));
+    }
+
+    @Override
+    public int getPriority() {
+        return 0;
+    }
+
+    @Override
+    public int getSlot() {
+        return 0;
+    }
+
+    @Override
+    public boolean validForPass(int pass) {
+        return true;
+    }
+
+    @Override
+    public IAEEssentiaStack injectItems(IAEEssentiaStack stack, Actionable mode, IActionSource src) {
+        if (!this.canAccept(stack))
+            return stack;
+        return this.cell.injectItems(stack, mode, src);
+    }
+
+    @Override
+    public IAEEssentiaStack extractItems(IAEEssentiaStack stack, Actionable mode, IActionSource src) {
+        return this.cell.extractItems(stack, mode, src);
+    }
+
+    @Override
+    public IItemList<IAEEssentiaStack> getAvailableItems(IItemList<IAEEssentiaStack> list) {
+        return this.cell.getAvailableItems(list);
+    }
+
+    @Override
+    public IStorageChannel<IAEEssentiaStack> getChannel() {
+        return this.cell.getChannel();
+    }
+}
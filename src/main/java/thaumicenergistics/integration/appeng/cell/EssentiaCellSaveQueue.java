@@ -0,0 +1,141 @@
+package thaumicenergistics.integration.appeng.cell;
+
+import appeng.api.storage.ISaveProvider;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import thaumicenergistics.api.ThEApi;
+import thaumicenergistics.util.ForgeUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Essentia cells in a drive or chest keep their changes in memory and only get written to the cell every few ticks
+ * <p>
+ * Pending changes are also written when the world saves, when the chunk of their drive unloads, before the same
+ * cell gets read again and when the server stops. Only the server thread touches the queue.
+ * <p>
+ * A pending cell carries an ID in its tag, which survives {@link ItemStack#copy()}. AE reads a copy of a cell taken out
+ * of a drive to remove its contents from the grid, looking that copy up writes the pending changes into both stacks.
+ */
+@Mod.EventBusSubscriber
+public class EssentiaCellSaveQueue {
+
+    private static final String TAG_PENDING = "pendingSave";
+    private static final Map<UUID, EssentiaCellInventory> PENDING = new HashMap<>();
+    private static int ticks;
+
+    static void enqueue(EssentiaCellInventory cell) {
+        ItemStack stack = cell.getItemStack();
+        UUID id = EssentiaCellSaveQueue.getPendingId(stack);
+        if (id == null) {
+            id = UUID.randomUUID();
+            if (stack.getTagCompound() == null)
+                stack.setTagCompound(new NBTTagCompound());
+            stack.getTagCompound().setUniqueId(TAG_PENDING, id);
+        }
+        EssentiaCellInventory previous = PENDING.put(id, cell);
+        if (previous != null && previous != cell)
+            previous.flush();
+    }
+
+    /**
+     * Writes the pending changes of the cell, needs to happen before anything reads its tag
+     * <p>
+     * Works for copies of the pending stack as well, they get the written tag too
+     */
+    public static void flush(ItemStack stack) {
+        if (ForgeUtil.isClient())
+            return;
+        UUID id = EssentiaCellSaveQueue.getPendingId(stack);
+        if (id == null)
+            return;
+        EssentiaCellInventory cell = PENDING.remove(id);
+        if (cell == null) { // Copy of a cell that got written since
+            EssentiaCellSaveQueue.clearPendingId(stack);
+            return;
+        }
+        EssentiaCellSaveQueue.clearPendingId(cell.getItemStack());
+        cell.flush();
+        if (cell.getItemStack() != stack) {
+            NBTTagCompound tag = cell.getItemStack().getTagCompound();
+            stack.setTagCompound(tag != null ? tag.copy() : null);
+        }
+    }
+
+    public static void flush(ISaveProvider container) {
+        EssentiaCellSaveQueue.flush(cell -> cell.getContainer() == container);
+    }
+
+    public static void flushAll() {
+        EssentiaCellSaveQueue.flush(cell -> true);
+    }
+
+    private static void flush(Predicate<EssentiaCellInventory> filter) {
+        if (PENDING.isEmpty() || ForgeUtil.isClient())
+            return;
+        // Saving can make the drive read its cells again, so collect first
+        List<EssentiaCellInventory> cells = new ArrayList<>();
+        for (Iterator<EssentiaCellInventory> it = PENDING.values().iterator(); it.hasNext(); ) {
+            EssentiaCellInventory cell = it.next();
+            if (filter.test(cell)) {
+                EssentiaCellSaveQueue.clearPendingId(cell.getItemStack());
+                cells.add(cell);
+                it.remove();
+            }
+        }
+        cells.forEach(EssentiaCellInventory::flush);
+    }
+
+    private static UUID getPendingId(ItemStack stack) {
+        NBTTagCompound tag = stack.getTagCompound();
+        return tag != null && tag.hasUniqueId(TAG_PENDING) ? tag.getUniqueId(TAG_PENDING) : null;
+    }
+
+    private static void clearPendingId(ItemStack stack) {
+        NBTTagCompound tag = stack.getTagCompound();
+        if (tag == null)
+            return;
+        tag.removeTag(TAG_PENDING + "Most");
+        tag.removeTag(TAG_PENDING + "Least");
+        if (tag.isEmpty())
+            stack.setTagCompound(null);
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || ++ticks < ThEApi.instance().config().tickTimeEssentiaCellSave())
+            return;
+        ticks = 0;
+        EssentiaCellSaveQueue.flushAll();
+    }
+
+    @SubscribeEvent
+    public static void onWorldSave(WorldEvent.Save event) {
+        if (!event.getWorld().isRemote)
+            EssentiaCellSaveQueue.flushAll();
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.getWorld().isRemote)
+            return;
+        EssentiaCellSaveQueue.flush(cell -> {
+            if (!(cell.getContainer() instanceof TileEntity))
+                return false;
+            TileEntity te = (TileEntity) cell.getContainer();
+            return te.getWorld() == event.getWorld() && te.getPos().getX() >> 4 == event.getChunk().x && te.getPos().getZ() >> 4 == event.getChunk().z;
+        });
+    }
+}
@@ -13,8 +13,14 @@ import thaumcraft.api.aspects.Aspect;
 import thaumcraft.api.aspects.IAspectContainer;
 import thaumicenergistics.api.storage.IAEEssentiaStack;
 import thaumicenergistics.api.storage.IEssentiaStorageChannel;
+import thaumicenergistics.integration.thaumcraft.EssentiaCapacity;
 import thaumicenergistics.util.AEUtil;
 import thaumicenergistics.util.EssentiaFilter;
+import thaumicenergistics.util.TCUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Wraps a IAspectContainer for use by a ME system
@@ -34,6 +40,9 @@ public class EssentiaContainerAdapter implements IMEInventoryHandler<IAEEssentia
     private boolean hasWriteAccess;
     private boolean reportInaccessible;
     private int priority;
+    private IItemList<IAEEssentiaStack> snapshot;
+    private long insertAttempts;
+    private long failedInserts;
 
     public EssentiaContainerAdapter(IAspectContainer container, EssentiaFilter config, boolean whitelist, AccessRestriction access, StorageFilter filter, int priority) {
         this.container = container;
@@ -58,15 +67,33 @@ public class EssentiaContainerAdapter implements IMEInventoryHandler<IAEEssentia
 
     @Override
     public IAEEssentiaStack injectItems(IAEEssentiaStack input, Actionable type, IActionSource src) {
-        if (input == null || !input.isMeaningful() || !this.canAccept(input))
+        if (input == null || !input.isMeaningful())
+            return input;
+        this.insertAttempts++;
+        if (!this.canAccept(input)) {
+            this.failedInserts++;
             return input;
+        }
 
-        // Add to container to see how much it can store
-        int notAdded = this.container.addToContainer(input.getAspect(), (int) input.getStackSize());
-        if (type == Actionable.SIMULATE) // Annoying hack, maybe talk with Azanor about getting some type of simulation instead
-            this.container.takeFromContainer(input.getAspect(), (int) input.getStackSize() - notAdded);
-        if (notAdded > 0) // Didn't add it all
-            return input.setStackSize(notAdded);
+        Aspect aspect = input.getAspect();
+        int amount = TCUtil.toAspectAmount(input.getStackSize());
+        int notAdded;
+        if (type == Actionable.SIMULATE) {
+            int accepted = EssentiaCapacity.getAcceptable(this.container, aspect, amount);
+            if (accepted < 0) { // Unknown container, add to it to see how much it can store and take it back out
+                accepted = amount - this.container.addToContainer(aspect, amount);
+                this.container.takeFromContainer(aspect, accepted);
+            }
+            notAdded = amount - accepted;
+        } else {
+            notAdded = this.container.addToContainer(aspect, amount);
+            this.updateSnapshot(aspect, amount - notAdded);
+        }
+        if (notAdded >= amount)
+            this.failedInserts++;
+        long left = input.getStackSize() - (amount - notAdded);
+        if (left > 0) // Didn't add it all
+            return input.setStackSize(left);
         return null;
     }
 
@@ -80,7 +107,7 @@ public class EssentiaContainerAdapter implements IMEInventoryHandler<IAEEssentia
             return null;
 
         Aspect aspect = request.getAspect();
-        int max = (int) Math.min(this.container.containerContains(aspect), request.getStackSize());
+        int max = TCUtil.toAspectAmount(Math.min(this.container.containerContains(aspect), request.getStackSize()));
 
         if (mode == Actionable.SIMULATE)
             return AEUtil.getAEStackFromAspect(aspect, max);
@@ -88,17 +115,56 @@ public class EssentiaContainerAdapter implements IMEInventoryHandler<IAEEssentia
         boolean worked = this.container.takeFromContainer(aspect, max);
         if (!worked)
             return null;
+        this.updateSnapshot(aspect, -max);
 
         return request.setStackSize(max);
     }
 
     @Override
     public IItemList<IAEEssentiaStack> getAvailableItems(IItemList<IAEEssentiaStack> out) {
+        // The grid rebuilds what it knows about us from this, so it's the base for the next changes
+        this.snapshot = this.scan();
+        for (IAEEssentiaStack stack : this.snapshot)
+            out.add(stack);
+        return out;
+    }
+
+    /**
+     * Compares the container with what the grid knows about it, changes made through this adapter are known already
+     *
+     * @return Differences since the last call or {@link #getAvailableItems(IItemList)}, empty if the grid never
+     * asked for our contents
+     */
+    public List<IAEEssentiaStack> detectChanges() {
+        if (this.snapshot == null)
+            return Collections.emptyList();
+        IItemList<IAEEssentiaStack> current = this.scan();
+        List<IAEEssentiaStack> changes = new ArrayList<>();
+        for (IAEEssentiaStack stack : current) {
+            IAEEssentiaStack old = this.snapshot.findPrecise(stack);
+            long delta = stack.getStackSize() - (old == null ? 0 : old.getStackSize());
+            if (delta != 0)
+                changes.add(stack.copy().setStackSize(delta));
+        }
+        for (IAEEssentiaStack old : this.snapshot)
+            if (current.findPrecise(old) == null)
+                changes.add(old.copy().setStackSize(-old.getStackSize()));
+        this.snapshot = current;
+        return changes;
+    }
+
+    private IItemList<IAEEssentiaStack> scan() {
+        IItemList<IAEEssentiaStack> list = this.getChannel().createList();
         if (this.container == null || (!this.hasReadAccess && !this.reportInaccessible))
-            return out;
+            return list;
         for (Aspect aspect : this.container.getAspects().getAspects())
-            out.add(AEUtil.getAEStackFromAspect(aspect, this.container.containerContains(aspect)));
-        return out;
+            list.add(AEUtil.getAEStackFromAspect(aspect, this.container.containerContains(aspect)));
+        return list;
+    }
+
+    private void updateSnapshot(Aspect aspect, int change) {
+        if (this.snapshot != null && change != 0)
+            this.snapshot.add(AEUtil.getAEStackFromAspect(aspect, change));
     }
 
     public void setBaseAccess(AccessRestriction access) {
@@ -112,9 +178,27 @@ public class EssentiaContainerAdapter implements IMEInventoryHandler<IAEEssentia
         return this.cachedAccessRestriction;
     }
 
+    /**
+     * Labelled jars and containers already holding the aspect get offered inserts first, so AE doesn't have to try
+     * every other container before it finds them
+     */
     @Override
     public boolean isPrioritized(IAEEssentiaStack input) {
-        return false; // Maybe check if container instanceof TileJar and check if jar has a label with same aspect
+        return input != null && this.container != null && EssentiaCapacity.isAssignedTo(this.container, input.getAspect());
+    }
+
+    /**
+     * @return Amount of inserts offered to this adapter, simulated or not
+     */
+    public long getInsertAttempts() {
+        return this.insertAttempts;
+    }
+
+    /**
+     * @return Amount of offered inserts of which nothing could be stored
+     */
+    public long getFailedInserts() {
+        return this.failedInserts;
     }
 
     @Override
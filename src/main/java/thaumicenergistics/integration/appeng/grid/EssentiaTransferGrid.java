@@ -0,0 +1,308 @@
+package thaumicenergistics.integration.appeng.grid;
+
+import appeng.api.AEApi;
+import appeng.api.config.Actionable;
+import appeng.api.networking.IGrid;
+import appeng.api.networking.IGridHost;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.IGridStorage;
+import appeng.api.networking.security.IActionSource;
+import appeng.api.storage.IMEMonitor;
+import appeng.me.GridAccessException;
+import net.minecraft.tileentity.TileEntity;
+import thaumcraft.api.aspects.Aspect;
+import thaumcraft.api.aspects.IAspectContainer;
+import thaumicenergistics.api.AspectIndex;
+import thaumicenergistics.api.storage.IAEEssentiaStack;
+import thaumicenergistics.api.storage.IEssentiaStorageChannel;
+import thaumicenergistics.integration.appeng.AEEssentiaStack;
+import thaumicenergistics.integration.thaumcraft.EssentiaCapacity;
+import thaumicenergistics.util.ThELog;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per aspect the network sees at most one simulated inject, one extract and one inject per tick, no matter how many
+ * buses requested transfers.
+ */
+public class EssentiaTransferGrid implements IEssentiaTransferGrid {
+
+    private final IGrid grid;
+    private Batch[] batches = new Batch[0];
+    private final List<Batch> pending = new ArrayList<>();
+
+    // FIXME: Remove after issue fixed in TC.
+    // https://github.com/Nividica/ThaumicEnergistics/issues/361
+    // https://github.com/Azanor/thaumcraft-beta/issues/1604
+    private boolean reportedWarning = false;
+
+    public EssentiaTransferGrid(IGrid grid) {
+        this.grid = grid;
+    }
+
+    @Override
+    public void requestImport(IEssentiaTransferHost host, IAspectContainer from, Aspect aspect, int amount) {
+        if (amount < 1)
+            return;
+        Batch batch = this.getBatch(aspect);
+        batch.imports.add(new Request(host, from, amount));
+        batch.supply += amount;
+    }
+
+    @Override
+    public void requestExport(IEssentiaTransferHost host, IAspectContainer to, Aspect aspect, int amount) {
+        if (amount < 1)
+            return;
+        Batch batch = this.getBatch(aspect);
+        batch.exports.add(new Request(host, to, amount));
+        batch.demand += amount;
+    }
+
+    @Override
+    public void onUpdateTick() {
+        if (this.pending.isEmpty())
+            return;
+        List<Batch> batches = new ArrayList<>(this.pending);
+        this.pending.clear();
+
+        IMEMonitor<IAEEssentiaStack> storage = null;
+        try {
+            storage = GridUtil.getStorageGrid(this.grid).getInventory(AEApi.instance().storage().getStorageChannel(IEssentiaStorageChannel.class));
+        } catch (GridAccessException ignored) {
+        }
+        for (Batch batch : batches) {
+            if (storage != null && !batch.isEmpty())
+                this.process(storage, batch);
+            batch.finish();
+        }
+    }
+
+    private void process(IMEMonitor<IAEEssentiaStack> storage, Batch batch) {
+        Aspect aspect = batch.aspect;
+        IActionSource source = batch.getActionSource();
+
+        // Exports only get what their container has room for, as far as that can be told without touching it
+        long demand = 0;
+        for (Request request : batch.exports) {
+            if (!request.isValid())
+                continue;
+            int acceptable = EssentiaCapacity.getAcceptable(request.container, aspect, request.amount);
+            request.known = acceptable > -1;
+            request.wanted = request.known ? acceptable : request.amount;
+            demand += request.wanted;
+        }
+
+        // Imports go straight to the exports, only what they don't take has to fit into the network
+        long accepted = Math.min(batch.supply, demand);
+        if (batch.supply > demand) {
+            long surplus = batch.supply - demand;
+            IAEEssentiaStack notInjected = storage.injectItems(AEEssentiaStack.fromAspect(aspect, surplus), Actionable.SIMULATE, source);
+            accepted += surplus - (notInjected == null ? 0 : notInjected.getStackSize());
+        }
+
+        long pool = 0;
+        for (Request request : batch.imports) {
+            if (pool >= accepted)
+                break;
+            if (!request.isValid())
+                continue;
+            int amount = (int) Math.min(request.amount, Math.min(accepted - pool, request.container.containerContains(aspect)));
+            if (amount > 0 && request.container.takeFromContainer(aspect, amount)) {
+                request.moved = amount;
+                pool += amount;
+            }
+        }
+
+        pool = this.deliver(batch, aspect, pool);
+
+        // Only take out of the network what the containers are known to have room for
+        long missing = 0;
+        for (Request request : batch.exports)
+            if (request.known)
+                missing += request.wanted - request.moved;
+        if (missing > 0) {
+            IAEEssentiaStack extracted = storage.extractItems(AEEssentiaStack.fromAspect(aspect, missing), Actionable.MODULATE, source);
+            if (extracted != null)
+                pool = this.deliver(batch, aspect, pool + extracted.getStackSize());
+        }
+
+        // Containers we can't look into get filled first, then the network gives what they took
+        for (Request request : batch.exports) {
+            if (request.known || request.wanted - request.moved < 1)
+                continue;
+            IAEEssentiaStack available = storage.extractItems(AEEssentiaStack.fromAspect(aspect, request.wanted - request.moved), Actionable.SIMULATE, source);
+            if (available == null || available.getStackSize() < 1)
+                continue;
+            int amount = (int) available.getStackSize();
+            int added = amount - this.addToContainer(request, aspect, amount);
+            if (added < 1)
+                continue;
+            storage.extractItems(AEEssentiaStack.fromAspect(aspect, added), Actionable.MODULATE, source);
+            request.moved += added;
+        }
+
+        if (pool > 0) {
+            IAEEssentiaStack notInjected = storage.injectItems(AEEssentiaStack.fromAspect(aspect, pool), Actionable.MODULATE, source);
+            pool = notInjected == null ? 0 : notInjected.getStackSize();
+        }
+        // Only happens if the network lost space since the simulation, hand it back to where it came from
+        for (int i = batch.imports.size() - 1; i >= 0 && pool > 0; i--) {
+            Request request = batch.imports.get(i);
+            if (request.moved < 1)
+                continue;
+            int amount = (int) Math.min(request.moved, pool);
+            int returned = amount - this.addToContainer(request, aspect, amount);
+            request.moved -= returned;
+            pool -= returned;
+        }
+        if (pool > 0)
+            ThELog.warn("Essentia transfer voided {} {}, nothing could take it back", pool, aspect.getTag());
+    }
+
+    /**
+     * Hands the pool to the exports that still want something
+     *
+     * @return What is left of the pool
+     */
+    private long deliver(Batch batch, Aspect aspect, long pool) {
+        for (Request request : batch.exports) {
+            if (pool < 1)
+                break;
+            int amount = (int) Math.min(request.wanted - request.moved, pool);
+            if (amount < 1)
+                continue;
+            int added = amount - this.addToContainer(request, aspect, amount);
+            request.moved += added;
+            pool -= added;
+        }
+        return pool;
+    }
+
+    /**
+     * @return Amount that was not added
+     */
+    private int addToContainer(Request request, Aspect aspect, int amount) {
+        // FIXME: Remove after issue fixed in TC.
+        // https://github.com/Nividica/ThaumicEnergistics/issues/361
+        // https://github.com/Azanor/thaumcraft-beta/issues/1604
+        try {
+            int notAdded = request.container.addToContainer(aspect, amount);
+            this.reportedWarning = false;
+            return notAdded;
+        } catch (NullPointerException ignored) {
+            if (!this.reportedWarning)
+                ThELog.warn("container.addToContainer threw a NullPointerException. Thaumcraft Bug. Nividica/ThaumicEnergistics#361. Remove EssentiaExportBus from {}", request.container instanceof TileEntity ? ((TileEntity) request.container).getPos() : request.container);
+            this.reportedWarning = true;
+            return amount;
+        }
+    }
+
+    private Batch getBatch(Aspect aspect) {
+        int id = AspectIndex.getId(aspect);
+        if (id >= this.batches.length)
+            this.batches = Arrays.copyOf(this.batches, Math.max(id + 1, AspectIndex.size()));
+        Batch batch = this.batches[id];
+        if (batch == null)
+            batch = this.batches[id] = new Batch(aspect);
+        if (!batch.queued) {
+            batch.queued = true;
+            this.pending.add(batch);
+        }
+        return batch;
+    }
+
+    @Override
+    public void removeNode(@Nonnull IGridNode gridNode, @Nonnull IGridHost machine) {
+        for (Batch batch : this.pending)
+            batch.remove(machine);
+    }
+
+    @Override
+    public void addNode(@Nonnull IGridNode gridNode, @Nonnull IGridHost machine) {
+    }
+
+    @Override
+    public void onSplit(@Nonnull IGridStorage destinationStorage) {
+    }
+
+    @Override
+    public void onJoin(@Nonnull IGridStorage sourceStorage) {
+    }
+
+    @Override
+    public void populateGridStorage(@Nonnull IGridStorage destinationStorage) {
+    }
+
+    private static class Batch {
+
+        private final Aspect aspect;
+        private final List<Request> imports = new ArrayList<>();
+        private final List<Request> exports = new ArrayList<>();
+        private long supply;
+        private long demand;
+        private boolean queued;
+
+        private Batch(Aspect aspect) {
+            this.aspect = aspect;
+        }
+
+        private boolean isEmpty() {
+            return this.imports.isEmpty() && this.exports.isEmpty();
+        }
+
+        private void remove(Object host) {
+            this.imports.removeIf(request -> request.host == host);
+            this.exports.removeIf(request -> request.host == host);
+            this.supply = this.imports.stream().mapToLong(request -> request.amount).sum();
+            this.demand = this.exports.stream().mapToLong(request -> request.amount).sum();
+        }
+
+        private IActionSource getActionSource() {
+            return (this.imports.isEmpty() ? this.exports.get(0) : this.imports.get(0)).host.getActionSource();
+        }
+
+        /**
+         * Reports the results back and resets the batch for the next tick
+         */
+        private void finish() {
+            List<Request> done = new ArrayList<>(this.imports);
+            done.addAll(this.exports);
+            this.imports.clear();
+            this.exports.clear();
+            this.supply = 0;
+            this.demand = 0;
+            this.queued = false;
+            for (Request request : done)
+                request.host.onEssentiaTransferred(this.aspect, request.moved);
+        }
+    }
+
+    private static class Request {
+
+        private final IEssentiaTransferHost host;
+        private final IAspectContainer container;
+        private final int amount;
+        private int moved = 0;
+        /**
+         * Amount an export can take, only set while processing
+         */
+        private int wanted = 0;
+        /**
+         * False if we can't tell how much the container takes without adding to it
+         */
+        private boolean known;
+
+        private Request(IEssentiaTransferHost host, IAspectContainer container, int amount) {
+            this.host = host;
+            this.container = container;
+            this.amount = amount;
+        }
+
+        private boolean isValid() {
+            return !(this.container instanceof TileEntity) || !((TileEntity) this.container).isInvalid();
+        }
+    }
+}
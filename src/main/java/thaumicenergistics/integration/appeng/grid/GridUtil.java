@@ -7,6 +7,7 @@ import appeng.api.networking.IGridNode;
 import appeng.api.networking.crafting.ICraftingGrid;
 import appeng.api.networking.energy.IEnergyGrid;
 import appeng.api.networking.storage.IStorageGrid;
+import appeng.api.networking.ticking.ITickManager;
 import appeng.api.util.AEPartLocation;
 import appeng.me.GridAccessException;
 
@@ -52,6 +53,18 @@ public class GridUtil {
         return (IStorageGrid) GridUtil.getCache(node, IStorageGrid.class);
     }
 
+    public static IStorageGrid getStorageGrid(@Nonnull IGrid grid) throws GridAccessException {
+        return (IStorageGrid) GridUtil.getCache(grid, IStorageGrid.class);
+    }
+
+    public static IEssentiaTransferGrid getTransferGrid(@Nonnull IGridNode node) throws GridAccessException {
+        return (IEssentiaTransferGrid) GridUtil.getCache(node, IEssentiaTransferGrid.class);
+    }
+
+    public static ITickManager getTickManager(@Nonnull IGridNode node) throws GridAccessException {
+        return (ITickManager) GridUtil.getCache(node, ITickManager.class);
+    }
+
     public static IGridCache getCache(@Nonnull IGridHost host, @Nonnull Class<? extends IGridCache> clazz) throws GridAccessException {
         return GridUtil.getCache(GridUtil.getGrid(host), clazz);
     }
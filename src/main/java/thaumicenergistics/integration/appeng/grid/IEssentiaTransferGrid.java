@@ -0,0 +1,24 @@
+package thaumicenergistics.integration.appeng.grid;
+
+import appeng.api.networking.IGridCache;
+import thaumcraft.api.aspects.Aspect;
+import thaumcraft.api.aspects.IAspectContainer;
+
+/**
+ * Grid wide essentia transfer service
+ * <p>
+ * Requests are collected during the grid tick and handled together once per tick, one batch per aspect. Imports of an
+ * aspect are handed to the exports of the same aspect first, so only the difference has to go through the network.
+ */
+public interface IEssentiaTransferGrid extends IGridCache {
+
+    /**
+     * Requests moving essentia from a container into the network
+     */
+    void requestImport(IEssentiaTransferHost host, IAspectContainer from, Aspect aspect, int amount);
+
+    /**
+     * Requests moving essentia from the network into a container
+     */
+    void requestExport(IEssentiaTransferHost host, IAspectContainer to, Aspect aspect, int amount);
+}
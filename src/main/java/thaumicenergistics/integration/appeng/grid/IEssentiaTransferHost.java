@@ -0,0 +1,20 @@
+package thaumicenergistics.integration.appeng.grid;
+
+import appeng.api.networking.security.IActionSource;
+import thaumcraft.api.aspects.Aspect;
+
+/**
+ * Something that requests transfers from {@link IEssentiaTransferGrid}
+ */
+public interface IEssentiaTransferHost {
+
+    IActionSource getActionSource();
+
+    /**
+     * Called once for every requested transfer after the grid handled it
+     *
+     * @param aspect Aspect that was requested
+     * @param amount Amount that was actually moved, can be 0
+     */
+    void onEssentiaTransferred(Aspect aspect, long amount);
+}
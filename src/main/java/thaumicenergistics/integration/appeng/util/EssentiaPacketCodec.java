@@ -0,0 +1,113 @@
+package thaumicenergistics.integration.appeng.util;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import thaumcraft.api.aspects.Aspect;
+import thaumicenergistics.api.AspectIndex;
+import thaumicenergistics.api.storage.IAEEssentiaStack;
+import thaumicenergistics.integration.appeng.AEEssentiaStack;
+
+/**
+ * Binary wire format for {@link IAEEssentiaStack}
+ * <p>
+ * Layout: a header byte holding the format version in the upper 3 bits and the flags in the lower ones, the aspect as
+ * written by {@link #writeAspect(ByteBuf, Aspect)}, the amount as zigzag varlong and, only when flagged, the requestable
+ * count as zigzag varlong. A typical stack takes 3-5 bytes.
+ */
+public class EssentiaPacketCodec {
+
+    public static final int VERSION = 2;
+
+    private static final int VERSION_SHIFT = 5;
+    private static final int FLAG_CRAFTABLE = 1;
+    private static final int FLAG_REQUESTABLE = 1 << 1;
+
+    public static void write(ByteBuf buf, IAEEssentiaStack stack) {
+        int flags = VERSION << VERSION_SHIFT;
+        if (stack.isCraftable())
+            flags |= FLAG_CRAFTABLE;
+        if (stack.getCountRequestable() != 0)
+            flags |= FLAG_REQUESTABLE;
+        buf.writeByte(flags);
+        EssentiaPacketCodec.writeAspect(buf, stack.getAspect());
+        EssentiaPacketCodec.writeVarLong(buf, EssentiaPacketCodec.zigzag(stack.getStackSize()));
+        if ((flags & FLAG_REQUESTABLE) != 0)
+            EssentiaPacketCodec.writeVarLong(buf, EssentiaPacketCodec.zigzag(stack.getCountRequestable()));
+    }
+
+    /**
+     * Reads a stack written by {@link #write(ByteBuf, IAEEssentiaStack)}
+     *
+     * @return The stack, or null if the aspect is unknown on this side
+     */
+    public static IAEEssentiaStack read(ByteBuf buf) {
+        int flags = buf.readUnsignedByte();
+        int version = flags >>> VERSION_SHIFT;
+        if (version != VERSION)
+            throw new IllegalArgumentException("Unsupported essentia stack encoding version " + version);
+        Aspect aspect = EssentiaPacketCodec.readAspect(buf);
+        long amount = EssentiaPacketCodec.unzigzag(EssentiaPacketCodec.readVarLong(buf));
+        long requestable = (flags & FLAG_REQUESTABLE) != 0 ? EssentiaPacketCodec.unzigzag(EssentiaPacketCodec.readVarLong(buf)) : 0;
+        if (aspect == null)
+            return null;
+        return AEEssentiaStack.fromAspect(aspect, amount)
+                .setCountRequestable(requestable)
+                .setCraftable((flags & FLAG_CRAFTABLE) != 0);
+    }
+
+    /**
+     * Writes the {@link AspectIndex} ID plus one as varint, or 0 followed by the tag for aspects whose ID is not
+     * {@link AspectIndex#isShared(int) shared} between server and client
+     */
+    public static void writeAspect(ByteBuf buf, Aspect aspect) {
+        int id = AspectIndex.getId(aspect);
+        if (AspectIndex.isShared(id)) {
+            EssentiaPacketCodec.writeVarLong(buf, id + 1);
+        } else {
+            EssentiaPacketCodec.writeVarLong(buf, 0);
+            ByteBufUtils.writeUTF8String(buf, aspect != null ? aspect.getTag() : "");
+        }
+    }
+
+    /**
+     * Reads an aspect written by {@link #writeAspect(ByteBuf, Aspect)}
+     *
+     * @return The aspect, or null if it is unknown on this side
+     */
+    public static Aspect readAspect(ByteBuf buf) {
+        int id = (int) EssentiaPacketCodec.readVarLong(buf);
+        if (id == 0)
+            return AspectIndex.getAspect(ByteBufUtils.readUTF8String(buf));
+        return AspectIndex.getAspect(id - 1);
+    }
+
+    public static void writeVarLong(ByteBuf buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte((int) value);
+    }
+
+    public static long readVarLong(ByteBuf buf) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift >= 64)
+                throw new IllegalArgumentException("VarLong too big");
+            b = buf.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
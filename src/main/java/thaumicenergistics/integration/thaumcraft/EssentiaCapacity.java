@@ -0,0 +1,51 @@
+package thaumicenergistics.integration.thaumcraft;
+
+import thaumcraft.api.aspects.Aspect;
+import thaumcraft.api.aspects.IAspectContainer;
+import thaumcraft.common.tiles.essentia.TileJarFill;
+import thaumcraft.common.tiles.essentia.TileJarFillVoid;
+
+/**
+ * Answers how much essentia a container would take without touching it, for the containers we know the rules of
+ * <p>
+ * Has to match what {@link IAspectContainer#addToContainer(Aspect, int)} of those containers does.
+ */
+public class EssentiaCapacity {
+
+    /**
+     * TileJarFill has its capacity hard coded
+     */
+    public static final int JAR_CAPACITY = 250;
+
+    /**
+     * @return How much of the amount the container would accept, or -1 if the container is unknown
+     */
+    public static int getAcceptable(IAspectContainer container, Aspect aspect, int amount) {
+        if (container instanceof JarCluster)
+            return ((JarCluster) container).getAcceptable(aspect, amount);
+        if (container instanceof TileJarFill) {
+            TileJarFill jar = (TileJarFill) container;
+            if (jar.aspectFilter != null && jar.aspectFilter != aspect)
+                return 0;
+            if (jar.amount > 0 && jar.aspect != aspect)
+                return 0;
+            if (container instanceof TileJarFillVoid) // Voids whatever doesn't fit
+                return amount;
+            return Math.max(0, Math.min(amount, JAR_CAPACITY - jar.amount));
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if the container is labelled with the aspect or already holds some of it
+     */
+    public static boolean isAssignedTo(IAspectContainer container, Aspect aspect) {
+        if (container instanceof JarCluster)
+            return ((JarCluster) container).isAssignedTo(aspect);
+        if (container instanceof TileJarFill) {
+            TileJarFill jar = (TileJarFill) container;
+            return jar.aspectFilter == aspect || (jar.amount > 0 && jar.aspect == aspect);
+        }
+        return container.containerContains(aspect) > 0;
+    }
+}
@@ -0,0 +1,317 @@
+package thaumicenergistics.integration.thaumcraft;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import thaumcraft.api.aspects.Aspect;
+import thaumcraft.api.aspects.AspectList;
+import thaumcraft.api.aspects.IAspectContainer;
+import thaumcraft.common.tiles.essentia.TileJarFill;
+import thaumcraft.common.tiles.essentia.TileJarFillVoid;
+import thaumicenergistics.api.AspectIndex;
+import thaumicenergistics.util.TCUtil;
+
+import java.util.*;
+
+/**
+ * A bounded group of connected warded jars acting as one container
+ * <p>
+ * Jars are grouped by the aspect they hold or are labelled with, so inserts and extracts only look at the jars of that
+ * aspect. Stored amounts and free space are kept up to date by every insert and extract, {@link #update()} reads the
+ * known jars again to pick up changes made by anything else. Only {@link #refresh()} searches the world for the jars,
+ * which happens on creation, once a known jar got broken and every {@link #REFRESH_INTERVAL} ticks to find placed jars.
+ */
+public class JarCluster implements IAspectContainer {
+
+    public static final int REFRESH_INTERVAL = 200;
+
+    private final World world;
+    private final BlockPos origin;
+    private final int maxSize;
+    private Group[] groups = new Group[0];
+    private final List<TileJarFill> empty = new ArrayList<>();
+    private final List<TileJarFill> known = new ArrayList<>();
+    private int emptyVoids;
+    private int size;
+    private long lastRefresh;
+
+    public JarCluster(World world, BlockPos origin, int maxSize) {
+        this.world = world;
+        this.origin = origin;
+        this.maxSize = maxSize;
+        this.refresh();
+    }
+
+    /**
+     * @return Amount of jars in the cluster
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Finds the jars connected to the origin again and reads what they hold
+     */
+    public void refresh() {
+        for (Group group : this.groups)
+            if (group != null)
+                group.clear();
+        this.empty.clear();
+        this.emptyVoids = 0;
+        this.size = 0;
+        this.lastRefresh = this.world.getTotalWorldTime();
+
+        Set<BlockPos> visited = new HashSet<>();
+        Deque<BlockPos> queue = new ArrayDeque<>();
+        queue.add(this.origin);
+        visited.add(this.origin);
+        while (!queue.isEmpty() && this.size < this.maxSize) {
+            BlockPos pos = queue.poll();
+            if (!this.world.isBlockLoaded(pos))
+                continue;
+            TileEntity te = this.world.getTileEntity(pos);
+            if (!(te instanceof TileJarFill) || te.isInvalid())
+                continue;
+            this.track((TileJarFill) te);
+            this.size++;
+            for (EnumFacing facing : EnumFacing.VALUES) {
+                BlockPos next = pos.offset(facing);
+                if (visited.add(next))
+                    queue.add(next);
+            }
+        }
+    }
+
+    /**
+     * Sorts the known jars into their groups again by what they hold now, falls back to {@link #refresh()} if one of
+     * them is gone or the last search is older than {@link #REFRESH_INTERVAL} ticks
+     */
+    public void update() {
+        if (this.world.getTotalWorldTime() - this.lastRefresh >= REFRESH_INTERVAL) {
+            this.refresh();
+            return;
+        }
+        for (Group group : this.groups) {
+            if (group != null) {
+                this.known.addAll(group.jars);
+                group.clear();
+            }
+        }
+        this.known.addAll(this.empty);
+        this.empty.clear();
+        this.emptyVoids = 0;
+        for (TileJarFill jar : this.known) {
+            if (jar.isInvalid()) {
+                this.known.clear();
+                this.refresh();
+                return;
+            }
+            this.track(jar);
+        }
+        this.known.clear();
+    }
+
+    /**
+     * Read only counterpart of {@link #addToContainer(Aspect, int)}
+     */
+    public int getAcceptable(Aspect aspect, int amount) {
+        Group group = this.findGroup(aspect);
+        if ((group != null && group.voids > 0) || this.emptyVoids > 0)
+            return amount;
+        long free = (group == null ? 0 : group.free) + (long) this.empty.size() * EssentiaCapacity.JAR_CAPACITY;
+        return TCUtil.toAspectAmount(Math.max(0, Math.min(amount, free)));
+    }
+
+    /**
+     * @return true if a jar of the cluster is labelled with the aspect or holds some of it
+     */
+    public boolean isAssignedTo(Aspect aspect) {
+        Group group = this.findGroup(aspect);
+        return group != null && !group.jars.isEmpty();
+    }
+
+    @Override
+    public AspectList getAspects() {
+        AspectList list = new AspectList();
+        for (Group group : this.groups)
+            if (group != null && group.stored > 0)
+                list.add(group.aspect, TCUtil.toAspectAmount(group.stored));
+        return list;
+    }
+
+    @Override
+    public void setAspects(AspectList aspects) {
+    }
+
+    @Override
+    public boolean doesContainerAccept(Aspect aspect) {
+        Group group = this.findGroup(aspect);
+        return !this.empty.isEmpty() || (group != null && !group.jars.isEmpty());
+    }
+
+    @Override
+    public int addToContainer(Aspect aspect, int amount) {
+        if (aspect == null || amount < 1)
+            return amount;
+        Group group = this.getGroup(aspect);
+        for (TileJarFill jar : group.jars) {
+            if (amount < 1)
+                break;
+            if (jar.isInvalid())
+                continue;
+            int before = jar.amount;
+            amount = jar.addToContainer(aspect, amount);
+            group.changed(jar, before);
+        }
+        while (amount > 0 && !this.empty.isEmpty()) {
+            TileJarFill jar = this.empty.remove(this.empty.size() - 1);
+            if (jar instanceof TileJarFillVoid)
+                this.emptyVoids--;
+            if (jar.isInvalid())
+                continue;
+            group.add(jar);
+            int before = jar.amount;
+            amount = jar.addToContainer(aspect, amount);
+            group.changed(jar, before);
+        }
+        return amount;
+    }
+
+    @Override
+    public boolean takeFromContainer(Aspect aspect, int amount) {
+        Group group = this.findGroup(aspect);
+        if (group == null || amount < 1)
+            return amount == 0;
+        // Check the jars themselves so a stale count can't make us take only part of it
+        long available = 0;
+        for (TileJarFill jar : group.jars)
+            if (!jar.isInvalid() && jar.aspect == aspect)
+                available += jar.amount;
+        if (available < amount)
+            return false;
+
+        for (int i = group.jars.size() - 1; i >= 0 && amount > 0; i--) {
+            TileJarFill jar = group.jars.get(i);
+            if (jar.isInvalid() || jar.aspect != aspect || jar.amount < 1)
+                continue;
+            int take = Math.min(jar.amount, amount);
+            int before = jar.amount;
+            if (!jar.takeFromContainer(aspect, take))
+                continue;
+            amount -= take;
+            group.changed(jar, before);
+            if (jar.amount < 1 && jar.aspectFilter == null) {
+                group.remove(i);
+                this.empty.add(jar);
+                if (jar instanceof TileJarFillVoid)
+                    this.emptyVoids++;
+            }
+        }
+        return amount == 0;
+    }
+
+    @Override
+    public boolean takeFromContainer(AspectList list) {
+        if (!this.doesContainerContain(list))
+            return false;
+        for (Aspect aspect : list.getAspects())
+            this.takeFromContainer(aspect, list.getAmount(aspect));
+        return true;
+    }
+
+    @Override
+    public boolean doesContainerContainAmount(Aspect aspect, int amount) {
+        return this.containerContains(aspect) >= amount;
+    }
+
+    @Override
+    public boolean doesContainerContain(AspectList list) {
+        for (Aspect aspect : list.getAspects())
+            if (!this.doesContainerContainAmount(aspect, list.getAmount(aspect)))
+                return false;
+        return true;
+    }
+
+    @Override
+    public int containerContains(Aspect aspect) {
+        Group group = this.findGroup(aspect);
+        return group == null ? 0 : TCUtil.toAspectAmount(group.stored);
+    }
+
+    private void track(TileJarFill jar) {
+        Aspect aspect = jar.amount > 0 ? jar.aspect : jar.aspectFilter;
+        if (aspect == null) {
+            this.empty.add(jar);
+            if (jar instanceof TileJarFillVoid)
+                this.emptyVoids++;
+            return;
+        }
+        this.getGroup(aspect).add(jar);
+    }
+
+    private Group findGroup(Aspect aspect) {
+        if (aspect == null)
+            return null;
+        int id = AspectIndex.getId(aspect);
+        return id < this.groups.length ? this.groups[id] : null;
+    }
+
+    private Group getGroup(Aspect aspect) {
+        int id = AspectIndex.getId(aspect);
+        if (id >= this.groups.length)
+            this.groups = Arrays.copyOf(this.groups, Math.max(id + 1, AspectIndex.size()));
+        Group group = this.groups[id];
+        if (group == null)
+            group = this.groups[id] = new Group(aspect);
+        return group;
+    }
+
+    /**
+     * Jars holding or labelled with one aspect
+     */
+    private static class Group {
+
+        private final Aspect aspect;
+        private final List<TileJarFill> jars = new ArrayList<>();
+        private long stored;
+        private long free;
+        private int voids;
+
+        private Group(Aspect aspect) {
+            this.aspect = aspect;
+        }
+
+        private void add(TileJarFill jar) {
+            this.jars.add(jar);
+            this.stored += jar.amount;
+            if (jar instanceof TileJarFillVoid)
+                this.voids++;
+            else
+                this.free += EssentiaCapacity.JAR_CAPACITY - jar.amount;
+        }
+
+        private void remove(int index) {
+            TileJarFill jar = this.jars.remove(index);
+            this.stored -= jar.amount;
+            if (jar instanceof TileJarFillVoid)
+                this.voids--;
+            else
+                this.free -= EssentiaCapacity.JAR_CAPACITY - jar.amount;
+        }
+
+        private void changed(TileJarFill jar, int before) {
+            int diff = jar.amount - before;
+            this.stored += diff;
+            if (!(jar instanceof TileJarFillVoid))
+                this.free -= diff;
+        }
+
+        private void clear() {
+            this.jars.clear();
+            this.stored = 0;
+            this.free = 0;
+            this.voids = 0;
+        }
+    }
+}
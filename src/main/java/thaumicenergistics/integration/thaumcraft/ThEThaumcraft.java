@@ -21,6 +21,7 @@ import thaumcraft.api.items.ItemsTC;
 import thaumcraft.api.research.ResearchCategories;
 import thaumcraft.api.research.ScanningManager;
 import thaumcraft.api.research.theorycraft.TheorycraftManager;
+import thaumicenergistics.api.AspectIndex;
 import thaumicenergistics.api.ThEApi;
 import thaumicenergistics.init.ModGlobals;
 import thaumicenergistics.integration.IThEIntegration;
@@ -73,6 +74,13 @@ public class ThEThaumcraft implements IThEIntegration {
         this.registerInfusionRecipes();
     }
 
+    @Override
+    public void postInit() {
+        // Every addon had its chance to register aspects by now
+        AspectIndex.build();
+        ThELog.info("Indexed {} aspects", AspectIndex.size());
+    }
+
     private void registerArcaneRecipes() {
         ResourceLocation recipeGroup = new ResourceLocation("");
 
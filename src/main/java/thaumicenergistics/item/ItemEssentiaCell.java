@@ -8,6 +8,7 @@ import appeng.items.contents.CellUpgrades;
 import com.google.common.base.Preconditions;
 import net.minecraft.client.renderer.block.model.ModelResourceLocation;
 import net.minecraft.client.util.ITooltipFlag;
+import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.InventoryPlayer;
 import net.minecraft.item.ItemStack;
@@ -23,6 +24,7 @@ import thaumicenergistics.api.storage.IAEEssentiaStack;
 import thaumicenergistics.api.storage.IEssentiaStorageChannel;
 import thaumicenergistics.client.render.IThEModel;
 import thaumicenergistics.init.ModGlobals;
+import thaumicenergistics.integration.appeng.cell.EssentiaCellSaveQueue;
 import thaumicenergistics.util.inventory.EssentiaCellConfig;
 
 import javax.annotation.Nullable;
@@ -104,6 +106,12 @@ public class ItemEssentiaCell extends ItemBase implements IStorageCell<IAEEssent
         }
     }
 
+    @Override
+    public void onUpdate(ItemStack stack, World world, Entity entity, int slot, boolean isSelected) {
+        if (!world.isRemote)
+            EssentiaCellSaveQueue.flush(stack);
+    }
+
     @Override
     public void addInformation(ItemStack stack, @Nullable World worldIn, List<String> tooltip, ITooltipFlag flagIn) {
         ICellInventoryHandler<IAEEssentiaStack> cellInventory = AEApi.instance().registries().cell().getCellInventory(stack, null, this.getChannel());
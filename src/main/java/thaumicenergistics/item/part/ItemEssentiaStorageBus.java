@@ -3,13 +3,17 @@ package thaumicenergistics.item.part;
 import appeng.api.AEApi;
 import appeng.api.parts.IPart;
 import net.minecraft.client.renderer.block.model.ModelResourceLocation;
+import net.minecraft.client.util.ITooltipFlag;
 import net.minecraft.item.ItemStack;
+import net.minecraft.world.World;
 import net.minecraftforge.client.model.ModelLoader;
 import org.dv.minecraft.thaumicenergistics.thaumicenergistics.Reference;
+import thaumicenergistics.api.ThEApi;
 import thaumicenergistics.item.ItemPartBase;
 import thaumicenergistics.part.PartEssentiaStorageBus;
 
 import javax.annotation.Nullable;
+import java.util.List;
 
 /**
  * @author BrockWS
@@ -26,6 +30,12 @@ public class ItemEssentiaStorageBus extends ItemPartBase {
         return new PartEssentiaStorageBus(this);
     }
 
+    @Override
+    public void addInformation(ItemStack stack, @Nullable World worldIn, List<String> tooltip, ITooltipFlag flagIn) {
+        tooltip.add(ThEApi.instance().lang().essentiaStorageBusCluster().getLocalizedKey());
+        super.addInformation(stack, worldIn, tooltip, flagIn);
+    }
+
     @Override
     public void initModel() {
         AEApi.instance().registries().partModels().registerModels(PartEssentiaStorageBus.MODELS);
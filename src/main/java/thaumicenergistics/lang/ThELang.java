@@ -39,6 +39,7 @@ public class ThELang implements IThELang {
     private final IThELangKey arcaneAssemblerProgress;
     private final IThELangKey arcaneAssemblerNoAspect;
     private final IThELangKey arcaneAssemblerNoVis;
+    private final IThELangKey essentiaStorageBusCluster;
     private final IThELangKey guiEssentiaImportBus;
     private final IThELangKey guiEssentiaExportBus;
     private final IThELangKey guiEssentiaStorageBus;
@@ -97,6 +98,7 @@ public class ThELang implements IThELang {
         this.arcaneAssemblerProgress = new ThELangKey("tooltip.thaumicenergistics.arcane_assembler.progress");
         this.arcaneAssemblerNoAspect = new ThELangKey("tooltip.thaumicenergistics.arcane_assembler.no_aspect");
         this.arcaneAssemblerNoVis = new ThELangKey("tooltip.thaumicenergistics.arcane_assembler.no_vis");
+        this.essentiaStorageBusCluster = new ThELangKey("tooltip.thaumicenergistics.essentia_storage_bus.cluster");
 
         this.guiEssentiaImportBus = new ThELangKey("gui.thaumicenergistics.essentia_import_bus");
         this.guiEssentiaExportBus = new ThELangKey("gui.thaumicenergistics.essentia_export_bus");
@@ -277,6 +279,11 @@ public class ThELang implements IThELang {
         return this.arcaneAssemblerNoVis;
     }
 
+    @Override
+    public IThELangKey essentiaStorageBusCluster() {
+        return this.essentiaStorageBusCluster;
+    }
+
     @Override
     public IThELangKey guiEssentiaImportBus() {
         return this.guiEssentiaImportBus;
@@ -3,14 +3,17 @@ package thaumicenergistics.network.packets;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiScreen;
-import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import thaumcraft.api.aspects.Aspect;
+import thaumicenergistics.api.AspectIndex;
 import thaumicenergistics.client.gui.block.GuiArcaneAssembler;
+import thaumicenergistics.integration.appeng.util.EssentiaPacketCodec;
 import thaumicenergistics.tile.TileArcaneAssembler;
 
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author Alex811
@@ -32,18 +35,29 @@ public class PacketAssemblerGUIUpdate implements IMessage {
     public void fromBytes(ByteBuf buf) {
         this.hasEnoughVis = buf.readBoolean();
         int size = buf.readInt();
-        for (int i = 0; i < size; i++)
-            this.aspectExists.put(ByteBufUtils.readUTF8String(buf), buf.readBoolean());
+        for (int i = 0; i < size; i++) {
+            Aspect aspect = EssentiaPacketCodec.readAspect(buf);
+            boolean exists = buf.readBoolean();
+            if (aspect != null)
+                this.aspectExists.put(aspect.getTag(), exists);
+        }
     }
 
     @Override
     public void toBytes(ByteBuf buf) {
         buf.writeBoolean(this.hasEnoughVis);
-        buf.writeInt(this.aspectExists.size());
-        this.aspectExists.forEach((k, v) -> {
-            ByteBufUtils.writeUTF8String(buf, k);
-            buf.writeBoolean(v);
-        });
+        int sizeIndex = buf.writerIndex();
+        buf.writeInt(0);
+        int size = 0;
+        for (Map.Entry<String, Boolean> entry : this.aspectExists.entrySet()) {
+            Aspect aspect = AspectIndex.getAspect(entry.getKey());
+            if (aspect == null)
+                continue;
+            EssentiaPacketCodec.writeAspect(buf, aspect);
+            buf.writeBoolean(entry.getValue());
+            size++;
+        }
+        buf.setInt(sizeIndex, size);
     }
 
     public static class Handler implements IMessageHandler<PacketAssemblerGUIUpdate, IMessage> {
@@ -5,13 +5,13 @@ import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.inventory.Container;
 import net.minecraft.inventory.Slot;
 import net.minecraft.util.IThreadListener;
-import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 import thaumcraft.api.aspects.Aspect;
 import thaumicenergistics.container.part.ContainerSharedEssentiaBus;
 import thaumicenergistics.container.slot.SlotGhostEssentia;
+import thaumicenergistics.integration.appeng.util.EssentiaPacketCodec;
 import thaumicenergistics.util.ThELog;
 
 public class PacketGhostEssentia implements IMessage {
@@ -31,15 +31,14 @@ public class PacketGhostEssentia implements IMessage {
 
     @Override
     public void fromBytes(ByteBuf buf) {
-        String tag = ByteBufUtils.readUTF8String(buf);
-        ThELog.debug("Read aspect '{}' from bytes", tag);
-        aspect = Aspect.getAspect(tag);
+        aspect = EssentiaPacketCodec.readAspect(buf);
+        ThELog.debug("Read aspect '{}' from bytes", aspect != null ? aspect.getTag() : null);
         slot = buf.readInt();
     }
 
     @Override
     public void toBytes(ByteBuf buf) {
-        ByteBufUtils.writeUTF8String(buf, aspect.getTag());
+        EssentiaPacketCodec.writeAspect(buf, aspect);
         buf.writeInt(slot);
     }
 
@@ -53,6 +52,8 @@ public class PacketGhostEssentia implements IMessage {
             IThreadListener threadListener = (IThreadListener) player.world;
             threadListener.addScheduledTask(() -> {
                 Container openContainer = player.openContainer;
+                if (message.aspect == null)
+                    return;
                 ThELog.debug("Server received aspect '{}' using slot '{}'", message.aspect.getName(), openContainer);
                 if ((!(openContainer instanceof ContainerSharedEssentiaBus))) {
                     return;
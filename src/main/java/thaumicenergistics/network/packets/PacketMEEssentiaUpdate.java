@@ -1,6 +1,5 @@
 package thaumicenergistics.network.packets;
 
-import appeng.api.storage.data.IItemList;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.client.Minecraft;
 import net.minecraftforge.fml.common.FMLCommonHandler;
@@ -9,42 +8,56 @@ import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 import thaumicenergistics.api.storage.IAEEssentiaStack;
 import thaumicenergistics.client.gui.part.GuiEssentiaTerminal;
-import thaumicenergistics.integration.appeng.AEEssentiaStack;
-import thaumicenergistics.integration.appeng.EssentiaList;
+import thaumicenergistics.integration.appeng.util.EssentiaPacketCodec;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
+ * Sends essentia stacks to an open essentia terminal
+ * <p>
+ * A full packet replaces everything the client knows, otherwise the stacks hold the new absolute amounts of the
+ * aspects that changed, an amount of 0 means the aspect is gone.
+ *
  * @author BrockWS
  */
 public class PacketMEEssentiaUpdate implements IMessage {
 
-    private final IItemList<IAEEssentiaStack> list;
+    private final List<IAEEssentiaStack> list;
+    private boolean full;
 
     public PacketMEEssentiaUpdate() {
-        this.list = new EssentiaList();
+        this(false);
+    }
+
+    public PacketMEEssentiaUpdate(boolean full) {
+        this.list = new ArrayList<>();
+        this.full = full;
     }
 
     @Override
     public void fromBytes(ByteBuf buf) {
+        this.full = buf.readBoolean();
         while (buf.isReadable()) {
-            this.list.add(AEEssentiaStack.fromPacket(buf));
+            IAEEssentiaStack stack = EssentiaPacketCodec.read(buf);
+            if (stack != null)
+                this.list.add(stack);
         }
     }
 
     @Override
     public void toBytes(ByteBuf buf) {
-        for (IAEEssentiaStack stack : this.list) {
-            try {
-                stack.writeToPacket(buf);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
+        buf.writeBoolean(this.full);
+        for (IAEEssentiaStack stack : this.list)
+            EssentiaPacketCodec.write(buf, stack);
     }
 
     public void appendStack(IAEEssentiaStack stack) {
-        this.list.add(stack);
+        this.list.add(stack.copy());
+    }
+
+    public boolean isEmpty() {
+        return this.list.isEmpty();
     }
 
     public static class Handler implements IMessageHandler<PacketMEEssentiaUpdate, IMessage> {
@@ -54,7 +67,7 @@ public class PacketMEEssentiaUpdate implements IMessage {
             FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(() -> {
                 if (Minecraft.getMinecraft().currentScreen instanceof GuiEssentiaTerminal) {
                     GuiEssentiaTerminal gui = (GuiEssentiaTerminal) Minecraft.getMinecraft().currentScreen;
-                    gui.onMEStorageUpdate(message.list);
+                    gui.onMEStorageUpdate(message.list, message.full);
                 }
             });
             return null;
@@ -14,110 +14,140 @@ import thaumicenergistics.client.gui.part.GuiArcaneTerminal;
 import thaumicenergistics.util.ThELog;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.BufferOverflowException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 /**
+ * Stacks are written uncompressed into the packet as they get appended and only deflated once when the packet is
+ * sent. Small packets are sent as they are since deflating them costs more than it saves.
+ * <p>
+ * A reset packet starts a new inventory snapshot, the client drops what it knows before applying it.
+ *
  * @author BrockWS
  */
 public class PacketMEItemUpdate implements IMessage {
 
     private static final int UNCOMPRESSED_PACKET_BYTE_LIMIT = 16 * 1024 * 1024;
-    private static final int OPERATION_BYTE_LIMIT = 2 * 1024;
-    private static final int TEMP_BUFFER_SIZE = 1024;
+    private static final int COMPRESSED_PACKET_BYTE_LIMIT = 2 * 1024 * 1024;
+    private static final int COMPRESSION_THRESHOLD = 256;
+    private static final int INITIAL_BUFFER_SIZE = 2 * 1024;
+    private static final int TEMP_BUFFER_SIZE = 8 * 1024;
+
+    private static final byte MODE_RAW = 0;
+    private static final byte MODE_DEFLATE = 1;
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(Deflater::new);
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+    private static final ThreadLocal<byte[]> TEMP_BUFFER = ThreadLocal.withInitial(() -> new byte[TEMP_BUFFER_SIZE]);
 
     private final List<IAEItemStack> list;
 
     private final ByteBuf data;
 
-    private final GZIPOutputStream compressFrame;
-
-    private int writtenBytes = 0;
     private boolean empty = true;
+    private boolean reset;
 
-    public PacketMEItemUpdate() throws IOException {
-        this.list = new ArrayList<>();
+    public PacketMEItemUpdate() {
+        this(false);
+    }
 
-        this.data = Unpooled.buffer(OPERATION_BYTE_LIMIT);
-        compressFrame = new GZIPOutputStream(new OutputStream() {
-            @Override
-            public void write(int value) {
-                data.writeByte(value);
-            }
-        });
+    public PacketMEItemUpdate(boolean reset) {
+        this.list = new ArrayList<>();
+        this.data = Unpooled.buffer(INITIAL_BUFFER_SIZE);
+        this.reset = reset;
     }
 
     @Override
     public void fromBytes(ByteBuf buf) {
-//        ThELog.info("fromBytes Readable Bytes : " + buf.readableBytes());
-//        ThELog.info("fromBytes isReadable : " + buf.isReadable());
         if (!buf.isReadable()) {
             return;
         }
-        try (GZIPInputStream gzReader = new GZIPInputStream(new InputStream() {
-            @Override
-            public int read() throws IOException {
-                if (buf.readableBytes() <= 0) {
-                    return -1;
-                }
-
-                return buf.readByte() & 0xff;
-            }
-        })) {
-            ByteBuf uncompressed = Unpooled.buffer(buf.readableBytes());
-            byte[] tmp = new byte[TEMP_BUFFER_SIZE];
-            while (gzReader.available() != 0) {
-                int bytes = gzReader.read(tmp);
-                if (bytes > 0) {
-                    uncompressed.writeBytes(tmp, 0, bytes);
-                }
-            }
-            while (uncompressed.readableBytes() > 0) {
+        this.reset = buf.readBoolean();
+        if (!buf.isReadable()) {
+            return;
+        }
+        try {
+            ByteBuf uncompressed = buf.readByte() == MODE_DEFLATE ? PacketMEItemUpdate.inflate(buf) : buf;
+            while (uncompressed.isReadable()) {
                 this.list.add(AEItemStack.fromPacket(uncompressed));
             }
-        } catch (IOException e) {
-            ThELog.error("fromBytes IOException", e);
+        } catch (IOException | DataFormatException e) {
+            ThELog.error("fromBytes", e);
         }
         this.empty = this.list.isEmpty();
     }
 
     @Override
     public void toBytes(ByteBuf buf) {
-        if (!data.isReadable()) {
-            ThELog.info("No readable bytes, skipping");
+        buf.writeBoolean(this.reset);
+        int length = this.data.readableBytes();
+        if (length < 1) {
             return;
         }
-        try {
-            compressFrame.close();
-            data.capacity(data.readableBytes());
-            if (data.array().length > 2 * 1024 * 1024) {
-                throw new IllegalArgumentException("Sorry, ThE made a " + data.array().length + " byte packet by accident!");
-            }
-//            ThELog.info("toBytes Readable Bytes : " + data.readableBytes());
-            buf.writeBytes(data);
-        } catch (IOException e) {
-            ThELog.error("toBytes IOException", e);
+        if (length < COMPRESSION_THRESHOLD) {
+            buf.writeByte(MODE_RAW);
+            buf.writeBytes(this.data, this.data.readerIndex(), length);
+            return;
+        }
+
+        int start = buf.writerIndex();
+        Deflater deflater = DEFLATER.get();
+        byte[] tmp = TEMP_BUFFER.get();
+        deflater.reset();
+        deflater.setInput(this.data.array(), this.data.arrayOffset() + this.data.readerIndex(), length);
+        deflater.finish();
+
+        buf.writeByte(MODE_DEFLATE);
+        buf.writeInt(length);
+        while (!deflater.finished()) {
+            int bytes = deflater.deflate(tmp);
+            buf.writeBytes(tmp, 0, bytes);
+        }
+        if (buf.writerIndex() - start > COMPRESSED_PACKET_BYTE_LIMIT) {
+            throw new IllegalArgumentException("Sorry, ThE made a " + (buf.writerIndex() - start) + " byte packet by accident!");
         }
     }
 
     public void appendStack(IAEItemStack stack) throws IOException, BufferOverflowException {
+        int start = this.data.writerIndex();
+        stack.writeToPacket(this.data);
+        if (this.data.writerIndex() > UNCOMPRESSED_PACKET_BYTE_LIMIT) {
+            this.data.writerIndex(start);
+            throw new BufferOverflowException();
+        }
+        this.empty = false;
+    }
 
-        ByteBuf tmp = Unpooled.buffer(OPERATION_BYTE_LIMIT);
-        stack.writeToPacket(tmp);
+    private static ByteBuf inflate(ByteBuf buf) throws DataFormatException {
+        int length = buf.readInt();
+        if (length < 0 || length > UNCOMPRESSED_PACKET_BYTE_LIMIT)
+            throw new DataFormatException("Invalid uncompressed length " + length);
 
-        compressFrame.flush();
-        if (writtenBytes + tmp.readableBytes() > UNCOMPRESSED_PACKET_BYTE_LIMIT) {
-            throw new BufferOverflowException();
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        int readable = buf.readableBytes();
+        if (buf.hasArray()) {
+            inflater.setInput(buf.array(), buf.arrayOffset() + buf.readerIndex(), readable);
         } else {
-            writtenBytes += tmp.readableBytes();
-            compressFrame.write(tmp.array(), 0, tmp.readableBytes());
-            this.empty = false;
+            byte[] input = readable <= TEMP_BUFFER_SIZE ? TEMP_BUFFER.get() : new byte[readable];
+            buf.getBytes(buf.readerIndex(), input, 0, readable);
+            inflater.setInput(input, 0, readable);
         }
+        buf.skipBytes(readable);
+
+        byte[] output = new byte[length];
+        int written = 0;
+        while (written < length && !inflater.finished()) {
+            int bytes = inflater.inflate(output, written, length - written);
+            if (bytes == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                throw new DataFormatException("Truncated packet, got " + written + " of " + length + " bytes");
+            written += bytes;
+        }
+        return Unpooled.wrappedBuffer(output, 0, written);
     }
 
     public static class Handler implements IMessageHandler<PacketMEItemUpdate, IMessage> {
@@ -127,11 +157,11 @@ public class PacketMEItemUpdate implements IMessage {
             FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(() -> {
                 if (Minecraft.getMinecraft().currentScreen instanceof GuiArcaneTerminal) {
                     GuiArcaneTerminal gui = (GuiArcaneTerminal) Minecraft.getMinecraft().currentScreen;
-                    gui.onMEStorageUpdate(message.list);
+                    gui.onMEStorageUpdate(message.list, message.reset);
                 }
                 if (Minecraft.getMinecraft().currentScreen instanceof GuiArcaneInscriber) {
                     GuiArcaneInscriber gui = (GuiArcaneInscriber) Minecraft.getMinecraft().currentScreen;
-                    gui.onMEStorageUpdate(message.list);
+                    gui.onMEStorageUpdate(message.list, message.reset);
                 }
             });
             return null;
@@ -141,4 +171,11 @@ public class PacketMEItemUpdate implements IMessage {
     public boolean isEmpty() {
         return this.empty;
     }
+
+    /**
+     * @return Uncompressed size of the appended stacks in bytes
+     */
+    public int getSize() {
+        return this.data.readableBytes();
+    }
 }
@@ -1,6 +1,6 @@
 package thaumicenergistics.part;
 
-import appeng.api.config.Actionable;
+import appeng.api.networking.IGrid;
 import appeng.api.networking.IGridNode;
 import appeng.api.networking.storage.IStorageGrid;
 import appeng.api.networking.ticking.TickRateModulation;
@@ -20,13 +20,17 @@ import thaumicenergistics.api.storage.IAEEssentiaStack;
 import thaumicenergistics.client.gui.GuiHandler;
 import thaumicenergistics.config.AESettings;
 import thaumicenergistics.init.ModGUIs;
+import thaumicenergistics.integration.appeng.AEEssentiaStack;
 import thaumicenergistics.integration.appeng.ThEPartModel;
+import thaumicenergistics.integration.appeng.grid.IEssentiaTransferGrid;
+import thaumicenergistics.integration.thaumcraft.EssentiaCapacity;
 import thaumicenergistics.item.part.ItemEssentiaExportBus;
 import thaumicenergistics.util.AEUtil;
 import thaumicenergistics.util.ForgeUtil;
-import thaumicenergistics.util.ThELog;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author BrockWS
@@ -44,11 +48,6 @@ public class PartEssentiaExportBus extends PartSharedEssentiaBus {
     private static final IPartModel MODEL_OFF = new ThEPartModel(MODELS[0], MODELS[2]);
     private static final IPartModel MODEL_HAS_CHANNEL = new ThEPartModel(MODELS[0], MODELS[3]);
 
-    // FIXME: Remove after issue fixed in TC.
-    // https://github.com/Nividica/ThaumicEnergistics/issues/361
-    // https://github.com/Azanor/thaumcraft-beta/issues/1604
-    private boolean reportedWarning = false;
-
     public PartEssentiaExportBus(ItemEssentiaExportBus item) {
         super(item);
     }
@@ -67,55 +66,55 @@ public class PartEssentiaExportBus extends PartSharedEssentiaBus {
     @Override
     public boolean canWork() {
         // We only want to run if there is something in the filter
-        return this.getConnectedTE() instanceof IAspectContainer
+        return this.getConnectedContainer() != null
                 && this.config.hasAspects();
     }
 
     @Override
     protected TickRateModulation doWork() {
-        if (!(this.getConnectedTE() instanceof IAspectContainer)) {
+        IAspectContainer container = this.getConnectedContainer();
+        if (container == null) {
             return TickRateModulation.IDLE;
         }
 
-        IAspectContainer container = (IAspectContainer) this.getConnectedTE();
-
-        IStorageGrid storageGrid = this.getGridNode().getGrid().getCache(IStorageGrid.class);
+        IGrid grid = this.getGridNode().getGrid();
+        IStorageGrid storageGrid = grid.getCache(IStorageGrid.class);
         IMEMonitor<IAEEssentiaStack> storage = storageGrid.getInventory(this.getChannel());
+        IEssentiaTransferGrid transfers = grid.getCache(IEssentiaTransferGrid.class);
+        this.watchStorage(storage);
 
-        for (Aspect aspect : this.config) { // Gather a list of aspects that can be put into the container
+        List<Aspect> aspects = new ArrayList<>();
+        for (Aspect aspect : this.config.getAspects()) { // Gather a list of aspects that can be put into the container
             if (aspect == null)
                 continue;
-            if (container.doesContainerAccept(aspect) && AEUtil.doesStorageContain(storage, aspect)) { // Can container hold the aspect + does ae2 hold the aspect
-                // Simulate extract from ae2
-                IAEEssentiaStack extracted = storage.extractItems(AEUtil.getAEStackFromAspect(aspect, this.calculateAmountToSend()), Actionable.SIMULATE, this.source);
-                // Try add to container, since we can't simulate it
-                int notAdded;
-                // FIXME: Remove after issue fixed in TC.
-                // https://github.com/Nividica/ThaumicEnergistics/issues/361
-                // https://github.com/Azanor/thaumcraft-beta/issues/1604
-                try {
-                    notAdded = container.addToContainer(extracted.getAspect(), (int) extracted.getStackSize());
-                } catch (NullPointerException ignored) {
-                    if (!reportedWarning)
-                        ThELog.warn("container.addToContainer threw a NullPointerException. Thaumcraft Bug. Nividica/ThaumicEnergistics#361. Remove EssentiaExportBus from {}", this.hostTile != null ? this.hostTile.getPos() : this.getConnectedTE().getPos());
-                    reportedWarning = true;
-                    return TickRateModulation.IDLE;
-                }
-                reportedWarning = false;
-                // Couldn't contain it all
-                extracted.decStackSize(notAdded);
-
-                if (extracted.getStackSize() == 0) {
-                    continue;
-                }
-
-                // Only remove from system the amount the container accepted
-                storage.extractItems(extracted, Actionable.MODULATE, this.source);
-                return TickRateModulation.FASTER; // Only do one every tick
-            }
+            // Can container hold the aspect + is there room for it + does ae2 hold the aspect
+            if (container.doesContainerAccept(aspect) && EssentiaCapacity.getAcceptable(container, aspect, 1) != 0 && AEUtil.doesStorageContain(storage, aspect))
+                aspects.add(aspect);
+        }
+
+        int budget = this.calculateAmountToSend();
+        for (int i = 0; i < aspects.size() && budget > 0; i++) {
+            // Split what is left evenly over the remaining aspects, whatever one can't take is left for the next ones
+            int remaining = aspects.size() - i;
+            int share = (budget + remaining - 1) / remaining;
+            int amount = this.getExportable(storage, container, aspects.get(i), share);
+            transfers.requestExport(this, container, aspects.get(i), amount);
+            budget -= amount;
         }
 
-        return TickRateModulation.SLOWER;
+        // Nothing stored, nothing accepted or the container is full, the network or the container will wake us up
+        return this.getTransferModulation(!aspects.isEmpty());
+    }
+
+    /**
+     * @return How much of the amount the network holds and the container has room for, as far as we can tell without
+     * touching either
+     */
+    private int getExportable(IMEMonitor<IAEEssentiaStack> storage, IAspectContainer container, Aspect aspect, int amount) {
+        int acceptable = EssentiaCapacity.getAcceptable(container, aspect, amount);
+        if (acceptable > -1)
+            amount = acceptable;
+        return (int) Math.min(amount, AEUtil.getStoredAmount(storage, AEEssentiaStack.fromAspect(aspect, 1)));
     }
 
     @Nonnull
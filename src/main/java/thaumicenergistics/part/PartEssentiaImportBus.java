@@ -1,6 +1,6 @@
 package thaumicenergistics.part;
 
-import appeng.api.config.Actionable;
+import appeng.api.networking.IGrid;
 import appeng.api.networking.IGridNode;
 import appeng.api.networking.storage.IStorageGrid;
 import appeng.api.networking.ticking.TickRateModulation;
@@ -15,7 +15,6 @@ import net.minecraft.util.math.Vec3d;
 import org.dv.minecraft.thaumicenergistics.thaumicenergistics.Reference;
 import thaumcraft.api.aspects.Aspect;
 import thaumcraft.api.aspects.IAspectContainer;
-import thaumicenergistics.api.EssentiaStack;
 import thaumicenergistics.api.ThEApi;
 import thaumicenergistics.api.storage.IAEEssentiaStack;
 import thaumicenergistics.client.gui.GuiHandler;
@@ -23,11 +22,14 @@ import thaumicenergistics.config.AESettings;
 import thaumicenergistics.init.ModGUIs;
 import thaumicenergistics.integration.appeng.AEEssentiaStack;
 import thaumicenergistics.integration.appeng.ThEPartModel;
+import thaumicenergistics.integration.appeng.grid.IEssentiaTransferGrid;
 import thaumicenergistics.item.part.ItemEssentiaImportBus;
 import thaumicenergistics.util.AEUtil;
 import thaumicenergistics.util.ForgeUtil;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author BrockWS
@@ -62,35 +64,41 @@ public class PartEssentiaImportBus extends PartSharedEssentiaBus {
 
     @Override
     public boolean canWork() {
-        return this.getConnectedTE() instanceof IAspectContainer;
+        return this.getConnectedContainer() != null;
     }
 
     @Override
     protected TickRateModulation doWork() {
-        if (!(this.getConnectedTE() instanceof IAspectContainer)) {
+        IAspectContainer container = this.getConnectedContainer();
+        if (container == null) {
             return TickRateModulation.IDLE;
         }
-        IAspectContainer container = (IAspectContainer) this.getConnectedTE();
-        for (Aspect aspect : container.getAspects().getAspects()) {
+        IGrid grid = this.getGridNode().getGrid();
+        IStorageGrid storageGrid = grid.getCache(IStorageGrid.class);
+        IMEMonitor<IAEEssentiaStack> storage = storageGrid.getInventory(this.getChannel());
+        IEssentiaTransferGrid transfers = grid.getCache(IEssentiaTransferGrid.class);
+        this.watchStorage(storage);
+
+        List<Aspect> aspects = new ArrayList<>();
+        for (Aspect aspect : container.getAspects().getAspects()) { // Gather a list of aspects that can be taken from the container
             if (this.config.hasAspects() && !this.config.isInFilter(aspect)) // Check filter
                 continue;
-            EssentiaStack inContainer = new EssentiaStack(aspect, Math.min(container.containerContains(aspect), this.calculateAmountToSend()));
-
-            IStorageGrid storageGrid = this.getGridNode().getGrid().getCache(IStorageGrid.class);
-            IMEMonitor<IAEEssentiaStack> storage = storageGrid.getInventory(this.getChannel());
-
-            AEEssentiaStack toInsert = AEEssentiaStack.fromEssentiaStack(inContainer);
-            if (storage.canAccept(toInsert)) {
-                IAEEssentiaStack notInserted = storage.injectItems(toInsert, Actionable.SIMULATE, this.source);
-                if (notInserted != null && notInserted.getStackSize() > 0) {
-                    toInsert.decStackSize(notInserted.getStackSize());
-                }
-                container.takeFromContainer(toInsert.getAspect(), (int) toInsert.getStackSize());
-                storage.injectItems(toInsert, Actionable.MODULATE, this.source);
-                return TickRateModulation.FASTER;
-            }
+            if (container.containerContains(aspect) > 0 && storage.canAccept(AEEssentiaStack.fromAspect(aspect, 1)))
+                aspects.add(aspect);
         }
-        return TickRateModulation.SLOWER;
+
+        int budget = this.calculateAmountToSend();
+        for (int i = 0; i < aspects.size() && budget > 0; i++) {
+            // Split what is left evenly over the remaining aspects, whatever one can't use is left for the next ones
+            int remaining = aspects.size() - i;
+            int share = (budget + remaining - 1) / remaining;
+            int amount = Math.min(share, container.containerContains(aspects.get(i)));
+            transfers.requestImport(this, container, aspects.get(i), amount);
+            budget -= amount;
+        }
+
+        // Container is empty or the network is full, the container or the network will wake us up
+        return this.getTransferModulation(!aspects.isEmpty());
     }
 
     @Nonnull
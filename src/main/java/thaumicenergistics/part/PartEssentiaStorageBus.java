@@ -3,6 +3,7 @@ package thaumicenergistics.part;
 import appeng.api.config.AccessRestriction;
 import appeng.api.config.Settings;
 import appeng.api.config.StorageFilter;
+import appeng.api.config.Upgrades;
 import appeng.api.networking.IGrid;
 import appeng.api.networking.IGridNode;
 import appeng.api.networking.events.MENetworkBootingStatusChange;
@@ -19,9 +20,11 @@ import appeng.api.storage.*;
 import appeng.api.util.AECableType;
 import appeng.core.sync.GuiBridge;
 import appeng.helpers.IPriorityHost;
+import appeng.me.GridAccessException;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumHand;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
@@ -29,6 +32,7 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.IBlockAccess;
 import org.dv.minecraft.thaumicenergistics.thaumicenergistics.Reference;
 import thaumcraft.api.aspects.IAspectContainer;
+import thaumcraft.common.tiles.essentia.TileJarFill;
 import thaumicenergistics.api.ThEApi;
 import thaumicenergistics.api.storage.IAEEssentiaStack;
 import thaumicenergistics.client.gui.GuiHandler;
@@ -36,9 +40,12 @@ import thaumicenergistics.config.AESettings;
 import thaumicenergistics.init.ModGUIs;
 import thaumicenergistics.integration.appeng.ThEPartModel;
 import thaumicenergistics.integration.appeng.grid.EssentiaContainerAdapter;
+import thaumicenergistics.integration.appeng.grid.GridUtil;
+import thaumicenergistics.integration.thaumcraft.JarCluster;
 import thaumicenergistics.item.part.ItemEssentiaStorageBus;
 import thaumicenergistics.util.AEUtil;
 import thaumicenergistics.util.ForgeUtil;
+import thaumicenergistics.util.ThELog;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -63,6 +70,8 @@ public class PartEssentiaStorageBus extends PartSharedEssentiaBus implements ICe
     private static final IPartModel MODEL_HAS_CHANNEL = new ThEPartModel(MODELS[0], MODELS[3]);
 
     private EssentiaContainerAdapter handler;
+    private JarCluster cluster;
+    private boolean clusterMode = false;
     private boolean wasActive = false;
     private IAspectContainer lastConnectedContainer = null;
     private int priority = 0;
@@ -91,7 +100,18 @@ public class PartEssentiaStorageBus extends PartSharedEssentiaBus implements ICe
         }
     }
 
+    /**
+     * With a fuzzy card the bus combines the jar it faces and the jars connected to it into one storage
+     */
+    public boolean hasClusterCard() {
+        return this.getInstalledUpgrades(Upgrades.FUZZY) > 0;
+    }
+
     protected void upgradesChanged() {
+        if (this.clusterMode != this.hasClusterCard()) {
+            this.clusterMode = !this.clusterMode;
+            this.dropHandler();
+        }
         EssentiaContainerAdapter handler = this.getHandler();
         if (handler != null)
             handler.setWhitelist(!this.hasInverterCard());
@@ -110,6 +130,7 @@ public class PartEssentiaStorageBus extends PartSharedEssentiaBus implements ICe
     public void removeFromWorld() {
         super.removeFromWorld();
         this.upgradeChangeListeners.clear();
+        this.dropHandler();
     }
 
     @Nonnull
@@ -120,17 +141,43 @@ public class PartEssentiaStorageBus extends PartSharedEssentiaBus implements ICe
 
     @Override
     public boolean canWork() {
-        return false;
+        return this.handler != null;
     }
 
     @Override
     protected TickRateModulation doWork() {
-        return TickRateModulation.SLOWER;
+        if (this.cluster != null) {
+            // Only the jar we face tells us when it changes, the others of the cluster have to be looked at
+            this.cluster.update();
+            return this.postChanges() ? TickRateModulation.FASTER : TickRateModulation.SLOWER;
+        }
+        // The container wakes us through onNeighborChanged when it changes
+        this.postChanges();
+        return TickRateModulation.SLEEP;
+    }
+
+    /**
+     * Tells the grid what changed in the container since it last looked
+     *
+     * @return true if anything changed
+     */
+    private boolean postChanges() {
+        EssentiaContainerAdapter handler = this.handler;
+        if (handler == null || this.getGridNode() == null)
+            return false;
+        List<IAEEssentiaStack> changes = handler.detectChanges();
+        if (changes.isEmpty())
+            return false;
+        try {
+            GridUtil.getStorageGrid(this.getGridNode()).postAlterationOfStoredItems(this.getChannel(), changes, this.source);
+        } catch (GridAccessException ignored) {
+        }
+        return true;
     }
 
     @Override
     public void postChange(IBaseMonitor<IAEEssentiaStack> monitor, Iterable<IAEEssentiaStack> change, IActionSource actionSource) {
-        // TODO: Probably should send off an update like PartStorageBus?
+        // Container changes are tracked by EssentiaContainerAdapter#detectChanges
         // Won't get anything here util Platform#postChanges is fixed #3644
         // https://github.com/AppliedEnergistics/Applied-Energistics-2/pull/3644
     }
@@ -149,17 +196,18 @@ public class PartEssentiaStorageBus extends PartSharedEssentiaBus implements ICe
     public void onNeighborChanged(IBlockAccess access, BlockPos pos, BlockPos neighbor) {
         if (pos == null || neighbor == null)
             return;
-        if (pos.offset(this.side.getFacing()).equals(neighbor) && this.getGridNode() != null) {
-            IGrid grid = this.getGridNode().getGrid();
-            if (grid != null) { // Might want to check if something was changed
-                //ThELog.info("MENetworkCellArrayUpdate");
-                grid.postEvent(new MENetworkCellArrayUpdate());
-            }
-        }
+        this.invalidateConnectedContainer();
         IAspectContainer connectedContainer = this.getConnectedContainer();
         if (this.lastConnectedContainer != connectedContainer) {
             this.lastConnectedContainer = connectedContainer;
-            this.handler = null;   // wipe cached handler, so it gets reconstructed
+            this.dropHandler();   // wipe cached handler, so it gets reconstructed
+            if (this.getGridNode() != null) {
+                IGrid grid = this.getGridNode().getGrid();
+                if (grid != null) // Container got placed, removed or replaced, the cell array has to be rebuilt
+                    grid.postEvent(new MENetworkCellArrayUpdate());
+            }
+        } else if (pos.offset(this.side.getFacing()).equals(neighbor)) {
+            this.wake(); // Look at the changes on the next tick, the container may change a few more times until then
         }
         super.onNeighborChanged(access, pos, neighbor);
     }
@@ -228,26 +276,42 @@ public class PartEssentiaStorageBus extends PartSharedEssentiaBus implements ICe
         return MODEL_OFF;
     }
 
+    /**
+     * Forgets the cached handler, logging how many of the inserts it was offered stored nothing
+     */
+    private void dropHandler() {
+        EssentiaContainerAdapter handler = this.handler;
+        if (handler == null)
+            return;
+        this.handler = null;
+        if (handler.getInsertAttempts() > 0)
+            ThELog.debug("Essentia storage bus at {} facing {} was offered {} inserts, {} of them stored nothing",
+                    this.hostTile.getPos(), this.side, handler.getInsertAttempts(), handler.getFailedInserts());
+    }
+
     @Nullable
     private EssentiaContainerAdapter getHandler() {
         if (this.handler == null) {
             IAspectContainer connectedContainer = this.getConnectedContainer();
-            if (connectedContainer != null)
-                return this.handler = new EssentiaContainerAdapter(connectedContainer, this.config,
+            if (connectedContainer != null) {
+                if (this.clusterMode && connectedContainer instanceof TileJarFill)
+                    connectedContainer = this.cluster = new JarCluster(this.hostTile.getWorld(), ((TileEntity) connectedContainer).getPos(), ThEApi.instance().config().essentiaStorageBusClusterSize());
+                else
+                    this.cluster = null;
+                this.handler = new EssentiaContainerAdapter(connectedContainer, this.config,
                         !this.hasInverterCard(),
                         (AccessRestriction) this.getConfigManager().getSetting(Settings.ACCESS),
                         (StorageFilter) this.getConfigManager().getSetting(Settings.STORAGE_FILTER),
                         this.priority
                 ); // init and cache handler
+                this.wake();
+                return this.handler;
+            }
             return null;
         }
         return this.handler;    // return cached handler
     }
 
-    private IAspectContainer getConnectedContainer() {
-        return this.getConnectedTE() instanceof IAspectContainer ? (IAspectContainer) this.getConnectedTE() : null;
-    }
-
     @Override
     public void getBoxes(IPartCollisionHelper box) {
         box.addBox(3, 3, 15, 13, 13, 16);
@@ -6,10 +6,15 @@ import appeng.api.config.Settings;
 import appeng.api.config.Upgrades;
 import appeng.api.implementations.IUpgradeableHost;
 import appeng.api.networking.IGridNode;
+import appeng.api.networking.security.IActionSource;
 import appeng.api.networking.ticking.IGridTickable;
 import appeng.api.networking.ticking.TickRateModulation;
 import appeng.api.parts.PartItemStack;
+import appeng.api.storage.IBaseMonitor;
+import appeng.api.storage.IMEMonitor;
+import appeng.api.storage.IMEMonitorHandlerReceiver;
 import appeng.api.util.AECableType;
+import appeng.me.GridAccessException;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
@@ -17,13 +22,19 @@ import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.wrapper.InvWrapper;
+import thaumcraft.api.aspects.Aspect;
+import thaumcraft.api.aspects.IAspectContainer;
+import thaumicenergistics.api.storage.IAEEssentiaStack;
 import thaumicenergistics.api.storage.IEssentiaStorageChannel;
+import thaumicenergistics.integration.appeng.grid.GridUtil;
+import thaumicenergistics.integration.appeng.grid.IEssentiaTransferHost;
 import thaumicenergistics.item.ItemPartBase;
 import thaumicenergistics.util.EssentiaFilter;
 import thaumicenergistics.util.inventory.ThEUpgradeInventory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -31,13 +42,20 @@ import java.util.List;
  * @author BrockWS
  * @author Alex811
  */
-public abstract class PartSharedEssentiaBus extends PartBase implements IGridTickable, IUpgradeableHost {
+public abstract class PartSharedEssentiaBus extends PartBase implements IGridTickable, IUpgradeableHost, IEssentiaTransferHost {
 
     public EssentiaFilter config;
     public ThEUpgradeInventory upgrades;
     protected boolean lastRedstone = true;
     public List<Runnable> upgradeChangeListeners = new ArrayList<>();
 
+    private final StorageWatcher storageWatcher = new StorageWatcher();
+    private IMEMonitor<IAEEssentiaStack> watchedStorage;
+    private WeakReference<TileEntity> connectedContainer;
+    private boolean connectedContainerCached = false;
+    private long transferred = 0;
+    private boolean transferAnswered = false;
+
     public PartSharedEssentiaBus(ItemPartBase item) {
         this(item, 9, 4);
     }
@@ -49,6 +67,7 @@ public abstract class PartSharedEssentiaBus extends PartBase implements IGridTic
             protected void onContentsChanged() {
                 super.onContentsChanged();
                 PartSharedEssentiaBus.this.host.markForSave();
+                PartSharedEssentiaBus.this.wake();
             }
         };
         this.upgrades = new ThEUpgradeInventory("upgrades", upgradeSlots, 1, this.getItemStack(PartItemStack.NETWORK)) {
@@ -57,6 +76,7 @@ public abstract class PartSharedEssentiaBus extends PartBase implements IGridTic
                 super.markDirty();
                 PartSharedEssentiaBus.this.host.markForSave();
                 upgradeChangeListeners.forEach(Runnable::run);
+                PartSharedEssentiaBus.this.wake();
             }
         };
     }
@@ -107,6 +127,39 @@ public abstract class PartSharedEssentiaBus extends PartBase implements IGridTic
         return null;
     }
 
+    /**
+     * Cached lookup of the container the bus faces. The cache is dropped on neighbour changes, when the neighbouring
+     * chunk is no longer loaded and when the tile got invalidated.
+     *
+     * @return Connected container or null if there is none
+     */
+    @Nullable
+    protected IAspectContainer getConnectedContainer() {
+        TileEntity self = this.host.getTile();
+        World w = self.getWorld();
+        BlockPos pos = self.getPos().offset(this.side.getFacing());
+        if (w.getChunkProvider().getLoadedChunk(pos.getX() >> 4, pos.getZ() >> 4) == null) {
+            this.invalidateConnectedContainer();
+            return null;
+        }
+        if (this.connectedContainerCached) {
+            if (this.connectedContainer == null)
+                return null;
+            TileEntity te = this.connectedContainer.get();
+            if (te != null && !te.isInvalid())
+                return (IAspectContainer) te;
+        }
+        TileEntity te = w.getTileEntity(pos);
+        this.connectedContainer = te instanceof IAspectContainer ? new WeakReference<>(te) : null;
+        this.connectedContainerCached = true;
+        return this.connectedContainer != null ? (IAspectContainer) te : null;
+    }
+
+    protected void invalidateConnectedContainer() {
+        this.connectedContainer = null;
+        this.connectedContainerCached = false;
+    }
+
     protected IEssentiaStorageChannel getChannel() {
         return AEApi.instance().storage().getStorageChannel(IEssentiaStorageChannel.class);
     }
@@ -159,11 +212,89 @@ public abstract class PartSharedEssentiaBus extends PartBase implements IGridTic
     @Nonnull
     @Override
     public TickRateModulation tickingRequest(@Nonnull IGridNode node, int ticksSinceLastCall) {
-        return (this.canWork() && this.workAllowedByRedstone()) ? this.doWork() : TickRateModulation.IDLE;
+        // Neighbour, redstone, config and upgrade changes wake us up again
+        return (this.canWork() && this.workAllowedByRedstone()) ? this.doWork() : TickRateModulation.SLEEP;
     }
 
+    /**
+     * Only return {@link TickRateModulation#SLEEP} if nothing can change without either the container notifying its
+     * neighbours or the amount of a watched aspect in the network changing
+     */
     protected abstract TickRateModulation doWork();
 
+    @Override
+    public IActionSource getActionSource() {
+        return this.source;
+    }
+
+    @Override
+    public void onEssentiaTransferred(Aspect aspect, long amount) {
+        this.transferred += amount;
+        this.transferAnswered = true;
+        if (amount > 0)
+            this.wake();
+    }
+
+    /**
+     * Picks the tick rate from how the transfers requested on an earlier tick went
+     *
+     * @param requested Whether transfers got requested on this tick
+     */
+    protected TickRateModulation getTransferModulation(boolean requested) {
+        long moved = this.transferred;
+        boolean answered = this.transferAnswered;
+        this.transferred = 0;
+        this.transferAnswered = false;
+        if (moved > 0)
+            return TickRateModulation.FASTER;
+        // Nothing to do or the last requests moved nothing, the grid wakes us up if this tick's requests move something
+        if (!requested || answered)
+            return TickRateModulation.SLEEP;
+        return TickRateModulation.SLOWER;
+    }
+
+    /**
+     * Wakes the bus up if it went to sleep
+     */
+    public void wake() {
+        IGridNode node = this.getGridNode();
+        if (node == null)
+            return;
+        try {
+            GridUtil.getTickManager(node).wakeDevice(node);
+        } catch (GridAccessException ignored) {
+        }
+    }
+
+    /**
+     * Wakes the bus up whenever the network amount of an aspect it works with changes
+     *
+     * @param storage Essentia monitor of the grid the bus is currently on
+     */
+    protected void watchStorage(IMEMonitor<IAEEssentiaStack> storage) {
+        if (this.watchedStorage == storage)
+            return;
+        this.watchedStorage = storage;
+        storage.addListener(this.storageWatcher, storage);
+    }
+
+    protected boolean isWatchedAspect(Aspect aspect) {
+        return !this.config.hasAspects() || this.config.isInFilter(aspect);
+    }
+
+    @Override
+    public void removeFromWorld() {
+        super.removeFromWorld();
+        this.watchedStorage = null;
+        this.invalidateConnectedContainer();
+    }
+
+    @Override
+    public void settingChanged(Settings setting) {
+        super.settingChanged(setting);
+        this.wake();
+    }
+
     protected RedstoneMode getRSMode() {
         if (!hasRedstoneCard())
             return RedstoneMode.IGNORE;
@@ -186,10 +317,35 @@ public abstract class PartSharedEssentiaBus extends PartBase implements IGridTic
     @Override
     public void onNeighborChanged(IBlockAccess iBlockAccess, BlockPos blockPos, BlockPos blockPos1) {
         super.onNeighborChanged(iBlockAccess, blockPos, blockPos1);
+        this.invalidateConnectedContainer();
+        this.wake();
         if (this.lastRedstone != this.hasRedstone()) {
             this.lastRedstone = !this.lastRedstone;
             if (this.lastRedstone && this.canWork() && this.getRSMode() == RedstoneMode.SIGNAL_PULSE)
                 this.doWork();
         }
     }
+
+    private class StorageWatcher implements IMEMonitorHandlerReceiver<IAEEssentiaStack> {
+
+        @Override
+        public boolean isValid(Object verificationToken) {
+            return PartSharedEssentiaBus.this.watchedStorage == verificationToken;
+        }
+
+        @Override
+        public void postChange(IBaseMonitor<IAEEssentiaStack> monitor, Iterable<IAEEssentiaStack> change, IActionSource actionSource) {
+            for (IAEEssentiaStack stack : change) {
+                if (stack != null && PartSharedEssentiaBus.this.isWatchedAspect(stack.getAspect())) {
+                    PartSharedEssentiaBus.this.wake();
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onListUpdate() {
+            PartSharedEssentiaBus.this.wake();
+        }
+    }
 }
@@ -11,9 +11,11 @@ import thaumcraft.api.aspects.AspectList;
 import thaumcraft.api.aspects.IAspectSource;
 import thaumicenergistics.api.storage.IAEEssentiaStack;
 import thaumicenergistics.api.storage.IEssentiaStorageChannel;
+import thaumicenergistics.integration.appeng.AEEssentiaStack;
 import thaumicenergistics.integration.appeng.grid.GridUtil;
 import thaumicenergistics.util.AEUtil;
 import thaumicenergistics.util.ForgeUtil;
+import thaumicenergistics.util.TCUtil;
 
 /**
  * @author BrockWS
@@ -47,7 +49,7 @@ public class TileInfusionProvider extends TileNetwork implements IAspectSource {
         AspectList list = new AspectList();
         IItemList<IAEEssentiaStack> stored = this.getStoredAspects();
         for (IAEEssentiaStack stack : stored)
-            list.add(stack.getAspect(), stack.getStackSize() >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) stack.getStackSize());
+            list.add(stack.getAspect(), TCUtil.toAspectAmount(stack.getStackSize()));
         return list;
     }
 
@@ -102,7 +104,10 @@ public class TileInfusionProvider extends TileNetwork implements IAspectSource {
 
     @Override
     public int containerContains(Aspect aspect) {
-        return this.getAspects().getAmount(aspect);
+        if (ForgeUtil.isClient())
+            return this.clientAspects.getAmount(aspect);
+        IAEEssentiaStack stored = this.getStoredAspects().findPrecise(AEEssentiaStack.fromAspect(aspect, 1));
+        return stored == null ? 0 : TCUtil.toAspectAmount(stored.getStackSize());
     }
 
     @Override
@@ -7,6 +7,7 @@ import appeng.api.implementations.items.IAEWrench;
 import appeng.api.networking.energy.IEnergySource;
 import appeng.api.networking.security.IActionSource;
 import appeng.api.storage.IMEInventory;
+import appeng.api.storage.IMEMonitor;
 import appeng.api.storage.IStorageChannel;
 import appeng.api.storage.channels.IItemStorageChannel;
 import appeng.api.storage.data.IAEFluidStack;
@@ -176,16 +177,27 @@ public class AEUtil {
 
     }
 
-    @SuppressWarnings("unchecked")
     public static boolean doesStorageContain(IMEInventory inv, IAEStack stack) {
-        return inv.getAvailableItems(inv.getChannel().createList()).findPrecise(stack) != null;
+        return AEUtil.getStoredAmount(inv, stack) > 0;
     }
 
     public static boolean doesStorageContain(IMEInventory inv, Aspect aspect) {
-        return AEUtil.doesStorageContain(inv, AEEssentiaStack.fromEssentiaStack(new EssentiaStack(aspect, 1)));
+        return AEUtil.doesStorageContain(inv, AEEssentiaStack.fromAspect(aspect, 1));
+    }
+
+    /**
+     * Get how much of the stack is stored in the inventory
+     * <p>
+     * Monitors keep their contents cached so this is a single lookup, any other inventory has to list everything it holds
+     */
+    @SuppressWarnings("unchecked")
+    public static long getStoredAmount(IMEInventory inv, IAEStack stack) {
+        IItemList list = inv instanceof IMEMonitor ? ((IMEMonitor) inv).getStorageList() : inv.getAvailableItems(inv.getChannel().createList());
+        IAEStack found = list.findPrecise(stack);
+        return found != null ? found.getStackSize() : 0;
     }
 
-    public static IAEEssentiaStack getAEStackFromAspect(Aspect aspect, int amount) {
+    public static IAEEssentiaStack getAEStackFromAspect(Aspect aspect, long amount) {
         return AEApi.instance().storage().getStorageChannel(IEssentiaStorageChannel.class).createStack(new EssentiaStack(aspect, amount));
     }
 
@@ -4,25 +4,37 @@ import net.minecraft.nbt.NBTTagCompound;
 import net.minecraftforge.common.util.INBTSerializable;
 import thaumcraft.api.aspects.Aspect;
 import thaumcraft.api.aspects.IAspectContainer;
+import thaumicenergistics.api.AspectIndex;
 
 import javax.annotation.Nonnull;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
+ * Keeps a bitset of the {@link AspectIndex} IDs in the filter next to the slots, so membership checks don't have to
+ * look at every slot
+ *
  * @author BrockWS
  * @author Alex811
  */
 public class EssentiaFilter implements INBTSerializable<NBTTagCompound>, Iterable<Aspect> {
 
     private Aspect[] aspects;
+    private int[] ids;
+    private final BitSet members = new BitSet();
 
     public EssentiaFilter(int slots) {
         this.aspects = new Aspect[slots];
+        this.ids = new int[slots];
+        Arrays.fill(this.ids, -1);
     }
 
     public void setAspect(Aspect aspect, int slot) {
         this.aspects[slot] = aspect;
+        this.ids[slot] = aspect == null ? -1 : AspectIndex.getId(aspect);
+        this.updateMembers();
         this.onContentsChanged();
     }
 
@@ -33,21 +45,49 @@ public class EssentiaFilter implements INBTSerializable<NBTTagCompound>, Iterabl
     }
 
     public boolean isInFilter(Aspect aspect) {
-        return this.isInFilter(aspect.getTag());
+        return this.isInFilter(AspectIndex.getId(aspect));
     }
 
     public boolean isInFilter(String aspect) {
-        for (Aspect af : this.aspects)
-            if (af != null && af.getTag().equalsIgnoreCase(aspect))
-                return true;
-        return false;
+        return this.isInFilter(AspectIndex.getId(aspect));
+    }
+
+    private boolean isInFilter(int id) {
+        return id > -1 && this.members.get(id);
     }
 
     public boolean hasAspects() {
-        for (Aspect a : this.aspects)
-            if (a != null)
-                return true;
-        return false;
+        return !this.members.isEmpty();
+    }
+
+    /**
+     * @return Every aspect in the filter once, without empty slots
+     */
+    public Iterable<Aspect> getAspects() {
+        return () -> new Iterator<Aspect>() {
+            private int next = EssentiaFilter.this.members.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return this.next > -1;
+            }
+
+            @Override
+            public Aspect next() {
+                if (this.next < 0)
+                    throw new NoSuchElementException();
+                Aspect aspect = AspectIndex.getAspect(this.next);
+                this.next = EssentiaFilter.this.members.nextSetBit(this.next + 1);
+                return aspect;
+            }
+        };
+    }
+
+    private void updateMembers() {
+        this.members.clear();
+        for (int id : this.ids)
+            if (id > -1)
+                this.members.set(id);
     }
 
     @Override
@@ -62,23 +102,36 @@ public class EssentiaFilter implements INBTSerializable<NBTTagCompound>, Iterabl
 
     @Override
     public void deserializeNBT(NBTTagCompound tag) {
-        if (tag.hasKey("count"))
+        if (tag.hasKey("count")) {
             this.aspects = new Aspect[tag.getInteger("count")];
+            this.ids = new int[this.aspects.length];
+            Arrays.fill(this.ids, -1);
+        }
         for (int i = 0; i < this.aspects.length; i++)
-            if (tag.hasKey("aspect#" + i))
-                this.aspects[i] = Aspect.getAspect(tag.getString("aspect#" + i));
+            if (tag.hasKey("aspect#" + i)) {
+                this.aspects[i] = AspectIndex.getAspect(tag.getString("aspect#" + i));
+                this.ids[i] = this.aspects[i] == null ? -1 : AspectIndex.getId(this.aspects[i]);
+            }
+        this.updateMembers();
         this.onContentsChanged();
     }
 
     public void clear() {
         Arrays.fill(this.aspects, null);
+        Arrays.fill(this.ids, -1);
+        this.members.clear();
         this.onContentsChanged();
     }
 
     public void partition(IAspectContainer aspectContainer) {
         Aspect[] aspects = aspectContainer.getAspects().getAspects();
         Arrays.fill(this.aspects, null);
-        System.arraycopy(aspects, 0, this.aspects, 0, aspects.length);
+        Arrays.fill(this.ids, -1);
+        int count = Math.min(aspects.length, this.aspects.length);
+        System.arraycopy(aspects, 0, this.aspects, 0, count);
+        for (int i = 0; i < count; i++)
+            this.ids[i] = AspectIndex.getId(aspects[i]);
+        this.updateMembers();
         this.onContentsChanged();
     }
 
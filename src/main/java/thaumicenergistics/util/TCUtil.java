@@ -51,6 +51,13 @@ public class TCUtil {
         return ((IEssentiaContainerItem) stack.getItem()).getAspects(stack).getAspects()[0];
     }
 
+    /**
+     * Thaumcraft containers only count in int, anything above is capped instead of overflowing
+     */
+    public static int toAspectAmount(long amount) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, amount));
+    }
+
     public static AspectList getItemAspects(ItemStack stack) {
         return ThaumcraftApi.internalMethods.getObjectAspects(stack);
     }